@@ -0,0 +1,352 @@
+package batch;
+
+import model.Puzzle;
+import model.io.BinaryPuzzleFormat;
+import model.metrics.Metrics;
+import model.solver.Solution;
+import model.solver.Solver;
+import model.solver.SolverMode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A headless entry point that solves a corpus of puzzles. The boards are streamed from the input file, one per line
+ * (the tokens in row-major order, with 0 or -1 for the blank) or as consecutive boards in the binary format, and
+ * handed to a fixed pool of workers. The reader blocks while too many boards are pending, so the corpus is never held
+ * in memory. Every result is validated by replaying it on a {@link Puzzle} and written as soon as it is ready.
+ */
+public class BatchSolver {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the number of pending boards allowed per worker before the reader blocks.
+     */
+    private final static int PENDING_BOARDS_PER_WORKER = 4;
+
+    /**
+     * Represents the size of the buffer used to stream binary corpora.
+     */
+    private final static int READ_BUFFER_SIZE = 64 * 1024;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the solver shared by every worker.
+     */
+    private final Solver solver;
+
+    /**
+     * Represents the pool where the boards are solved.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Represents the permits of the boards that can be pending at the same time.
+     */
+    private final Semaphore pendingBoards;
+
+    /**
+     * Represents the maximum number of pending boards.
+     */
+    private final int maxPendingBoards;
+
+    /**
+     * Represents the output where the results are written.
+     */
+    private final Writer output;
+
+    /**
+     * Represents the number of boards solved and validated.
+     */
+    private final AtomicLong solvedBoards = new AtomicLong();
+
+    /**
+     * Represents the number of boards that could not be solved or validated.
+     */
+    private final AtomicLong failedBoards = new AtomicLong();
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a batch solver.
+     * @param solver - Is the solver shared by every worker. It must be thread safe.
+     * @param workerCount - Is the number of boards solved in parallel.
+     * @param output - Is the output where the results are written, one line per board.
+     */
+    public BatchSolver(Solver solver, int workerCount, Writer output) {
+        this.solver = solver;
+        this.output = output;
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        maxPendingBoards = workerCount * PENDING_BOARDS_PER_WORKER;
+        pendingBoards = new Semaphore(maxPendingBoards);
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Solves every board of a text corpus, one board per line. Empty lines and lines starting with # are skipped.
+     * @param fileName - Is the corpus file.
+     * @return the number of boards read.
+     * @throws IOException - If there are problems reading the file.
+     * @throws InterruptedException - If the thread is interrupted while waiting for the workers.
+     */
+    public long solveTextCorpus(String fileName) throws IOException, InterruptedException {
+        long index = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int[][] board;
+                try {
+                    board = parseLine(line);
+                } catch (IllegalArgumentException e) {
+                    fail(index++, e.getMessage());
+                    continue;
+                }
+                submit(index++, board);
+            }
+        }
+        awaitPendingBoards();
+        return index;
+    }
+
+    /**
+     * Solves every board of a binary corpus, made of consecutive boards in the binary format.
+     * @param fileName - Is the corpus file.
+     * @return the number of boards read.
+     * @throws IOException - If there are problems reading the file or it is not a binary corpus.
+     * @throws InterruptedException - If the thread is interrupted while waiting for the workers.
+     */
+    public long solveBinaryCorpus(String fileName) throws IOException, InterruptedException {
+        long index = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            buffer.flip();
+            boolean endOfFile = false;
+            while (true) {
+                if (hasCompleteBoard(buffer)) {
+                    submit(index++, BinaryPuzzleFormat.decode(buffer));
+                } else if (!endOfFile) {
+                    buffer.compact();
+                    endOfFile = channel.read(buffer) == -1;
+                    buffer.flip();
+                } else if (buffer.hasRemaining()) {
+                    throw new IOException("The corpus " + fileName + " ends with a truncated board");
+                } else {
+                    break;
+                }
+            }
+        }
+        awaitPendingBoards();
+        return index;
+    }
+
+    /**
+     * Stops the workers once every pending board is solved.
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Gets the number of boards solved and validated so far.
+     * @return the number of solved boards.
+     */
+    public long getSolvedBoards() {
+        return solvedBoards.get();
+    }
+
+    /**
+     * Gets the number of boards that could not be solved or validated so far.
+     * @return the number of failed boards.
+     */
+    public long getFailedBoards() {
+        return failedBoards.get();
+    }
+
+    /**
+     * Parses a board written as its tokens in row-major order, separated by spaces or commas.
+     * @param line - Is the line to parse.
+     * @return the matrix of tokens of the board.
+     * @throws IllegalArgumentException - If the number of tokens is not a square or a token is not a number.
+     */
+    static int[][] parseLine(String line) throws IllegalArgumentException {
+        String[] tokens = line.split("[\\s,]+");
+        int size = (int) Math.round(Math.sqrt(tokens.length));
+        if (size * size != tokens.length) {
+            throw new IllegalArgumentException("The board has " + tokens.length + " tokens, which is not a square");
+        }
+        int[][] board = new int[size][size];
+        for (int index = 0; index < tokens.length; index++) {
+            int token = Integer.parseInt(tokens[index]);
+            board[index / size][index % size] = token == 0 ? Puzzle.BLANK_TOKEN : token;
+        }
+        return board;
+    }
+
+    /**
+     * Checks if a buffer holds a complete binary board at its position.
+     * @param buffer - Is the buffer to check.
+     * @return true if the next board can be decoded without reading more data.
+     */
+    private static boolean hasCompleteBoard(ByteBuffer buffer) {
+        if (buffer.remaining() < BinaryPuzzleFormat.HEADER_LENGTH) {
+            return false;
+        }
+        int size = buffer.get(buffer.position() + 4) & 0xFF;
+        return buffer.remaining() >= BinaryPuzzleFormat.encodedLength(Math.min(size, BinaryPuzzleFormat.MAX_SIZE));
+    }
+
+    /**
+     * Hands a board to the workers, blocking while too many boards are pending.
+     * @param index - Is the position of the board in the corpus.
+     * @param board - Is the matrix of tokens of the board.
+     * @throws InterruptedException - If the thread is interrupted while waiting.
+     */
+    private void submit(long index, int[][] board) throws InterruptedException {
+        pendingBoards.acquire();
+        workers.execute(() -> {
+            try {
+                solve(index, board);
+            } finally {
+                pendingBoards.release();
+            }
+        });
+    }
+
+    /**
+     * Solves a board, validates the solution on a puzzle and writes the result.
+     * @param index - Is the position of the board in the corpus.
+     * @param board - Is the matrix of tokens of the board.
+     */
+    private void solve(long index, int[][] board) {
+        try {
+            Puzzle puzzle = new Puzzle(board);
+            Solution solution = solver.solve(puzzle);
+            if (Metrics.ENABLED) {
+                Metrics.recordSolve(solution.getNodesExpanded(), solution.getElapsedNanos());
+            }
+            for (int token : solution.getTokens()) {
+                if (!puzzle.doMove(token)) {
+                    fail(index, "invalid movement of the token " + token);
+                    return;
+                }
+            }
+            if (!puzzle.puzzleSolved()) {
+                fail(index, "the solution does not solve the puzzle");
+                return;
+            }
+            solvedBoards.incrementAndGet();
+            write(index + "\t" + solution.getLength() + "\t" + solution.getNodesExpanded() + "\t"
+                    + solution.getElapsedNanos() / 1000);
+        } catch (IOException | RuntimeException e) {
+            // Any failure of the solver is reported with the board, so every board gets a line and a count.
+            fail(index, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    /**
+     * Writes the result of a board that could not be solved.
+     * @param index - Is the position of the board in the corpus.
+     * @param reason - Is the reason of the failure.
+     */
+    private void fail(long index, String reason) {
+        failedBoards.incrementAndGet();
+        write(index + "\terror\t" + reason);
+    }
+
+    /**
+     * Writes a line of results.
+     * @param line - Is the line to write.
+     */
+    private void write(String line) {
+        synchronized (output) {
+            try {
+                output.write(line);
+                output.write('\n');
+            } catch (IOException e) {
+                throw new IllegalStateException("The results can not be written", e);
+            }
+        }
+    }
+
+    /**
+     * Waits until every pending board is solved.
+     * @throws InterruptedException - If the thread is interrupted while waiting.
+     */
+    private void awaitPendingBoards() throws InterruptedException {
+        pendingBoards.acquire(maxPendingBoards);
+        pendingBoards.release(maxPendingBoards);
+    }
+
+    /**
+     * Entry point of the batch mode. The results are written as tab separated lines: the position of the board, the
+     * length of the solution, the expanded nodes and the time in microseconds, or "error" and the reason. The header
+     * tells the solver mode and whether its lengths are optimal.
+     * @param args - CLI arguments: the corpus file, the results file and, optionally, the number of workers and the
+     *             solver mode (IDA_STAR by default). Corpus files with the binary game extension are read as binary
+     *             corpora.
+     * @throws Exception - If there are problems reading the corpus or writing the results.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            StringJoiner modes = new StringJoiner("|", "[", "]");
+            for (SolverMode mode : SolverMode.values()) {
+                modes.add(mode.name());
+            }
+            System.err.println("Usage: BatchSolver <corpus file> <results file> [workers] " + modes);
+            return;
+        }
+        int workerCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        SolverMode mode = args.length > 3 ? SolverMode.valueOf(args[3]) : SolverMode.IDA_STAR;
+        long start = System.nanoTime();
+        long boards;
+        try (Writer output = new BufferedWriter(new FileWriter(args[1]))) {
+            output.write("# solver " + mode.name() + (mode.isOptimal() ? ", optimal lengths" : ", suboptimal lengths")
+                    + "\n");
+            output.write("# board\tlength\tnodes\tmicros\n");
+            BatchSolver batchSolver = new BatchSolver(mode.createSolver(), workerCount, output);
+            try {
+                if (args[0].endsWith("." + BinaryPuzzleFormat.GAME_EXTENSION)) {
+                    boards = batchSolver.solveBinaryCorpus(args[0]);
+                } else {
+                    boards = batchSolver.solveTextCorpus(args[0]);
+                }
+            } finally {
+                batchSolver.shutdown();
+            }
+            long millis = (System.nanoTime() - start) / 1000000;
+            System.err.println(boards + " boards (" + batchSolver.getSolvedBoards() + " solved, "
+                    + batchSolver.getFailedBoards() + " failed) in " + millis + "ms with " + workerCount + " workers");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * A small microbenchmark harness. Every benchmark runs a few warm-up iterations, so the JIT compiles the measured
+ * code, and then several timed iterations of a fixed duration. Besides the throughput, it reports the bytes allocated
+ * per operation by the measuring thread, the same figure that the GC profiler of JMH reports as gc.alloc.rate.norm.
+ */
+public class BenchmarkRunner {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the number of warm-up iterations.
+     */
+    private final int warmupIterations;
+
+    /**
+     * Represents the number of measured iterations.
+     */
+    private final int measurementIterations;
+
+    /**
+     * Represents the duration of every iteration, in nanoseconds.
+     */
+    private final long iterationNanos;
+
+    /**
+     * Represents the bean that reports the bytes allocated by a thread, or null if the JVM does not support it.
+     */
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    /**
+     * Represents the sink of the values returned by the benchmarks, so the JIT can not remove the measured code.
+     */
+    private volatile long sink;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a runner.
+     * @param warmupIterations - Is the number of warm-up iterations.
+     * @param measurementIterations - Is the number of measured iterations.
+     * @param iterationMillis - Is the duration of every iteration, in milliseconds.
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1000000;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threadBean = null;
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Measures a benchmark.
+     * @param name - Is the name of the benchmark in the report.
+     * @param operation - Is the measured code.
+     * @param batchSize - Is the number of operations run between two checks of the clock.
+     * @return a line of the report with the throughput, its error and the allocated bytes per operation.
+     */
+    public String measure(String name, Operation operation, int batchSize) {
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(operation, batchSize);
+        }
+        double[] throughputs = new double[measurementIterations];
+        long operations = 0;
+        long allocatedBytes = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            long iterationOperations = runIteration(operation, batchSize);
+            long elapsed = System.nanoTime() - start;
+            allocatedBytes += allocatedBytes() - allocatedBefore;
+            operations += iterationOperations;
+            throughputs[i] = iterationOperations * 1e9 / elapsed;
+        }
+
+        double mean = 0;
+        for (double throughput : throughputs) {
+            mean += throughput;
+        }
+        mean /= throughputs.length;
+        double variance = 0;
+        for (double throughput : throughputs) {
+            variance += (throughput - mean) * (throughput - mean);
+        }
+        double error = throughputs.length > 1 ? Math.sqrt(variance / (throughputs.length - 1)) : 0;
+        String allocation = threadBean == null ? "n/a" :
+                String.format(Locale.ROOT, "%.1f", (double) allocatedBytes / operations);
+        return String.format(Locale.ROOT, "%-40s %16.1f +- %12.1f ops/s %10s B/op %12.3f us/op", name, mean, error,
+                allocation, 1e6 / mean);
+    }
+
+    /**
+     * Runs an iteration of a benchmark, in batches, until its duration elapses.
+     * @param operation - Is the measured code.
+     * @param batchSize - Is the number of operations of every batch.
+     * @return the number of operations run.
+     */
+    private long runIteration(Operation operation, int batchSize) {
+        long deadline = System.nanoTime() + iterationNanos;
+        long operations = 0;
+        long result = 0;
+        do {
+            result += operation.run(batchSize);
+            operations += batchSize;
+        } while (System.nanoTime() < deadline);
+        sink = result;
+        return operations;
+    }
+
+    /**
+     * Gets the bytes allocated so far by the current thread.
+     * @return the allocated bytes, or 0 if the JVM does not report them.
+     */
+    private long allocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Inner classes
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The code measured by a benchmark.
+     */
+    public interface Operation {
+
+        /**
+         * Runs the measured code several times.
+         * @param times - Is the number of operations to run.
+         * @return any value derived from the results, so the JIT can not remove the code.
+         */
+        long run(int times);
+    }
+}
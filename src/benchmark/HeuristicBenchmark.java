@@ -0,0 +1,140 @@
+package benchmark;
+
+import model.Puzzle;
+import model.ScrambleGenerator;
+import model.UnsolvablePuzzleException;
+import model.solver.EightPuzzleTable;
+import model.solver.Heuristic;
+import model.solver.IdaStarSolver;
+import model.solver.ManhattanLinearConflict;
+import model.solver.PatternDatabase;
+import model.solver.Solution;
+import model.solver.WalkingDistance;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the heuristics on the same scrambles: every available heuristic for the size guides an
+ * {@link IdaStarSolver} over the same random boards, and the report shows the nodes expanded, the wall time, the
+ * heap that the heuristic builds on its first use and the bytes allocated by the searches, so the fastest heuristic
+ * for a workload can be chosen. Memory mapped tables live outside the heap, so they are not counted. Every heuristic
+ * must find optimal solutions, so the length of every board is compared with the one found by the first heuristic,
+ * and every mismatch is reported.
+ */
+public class HeuristicBenchmark {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds every heuristic that supports a size. The tables of the ones that need them are opened, or generated
+     * the first time.
+     * @param size - Is the size of the boards.
+     * @return the heuristics, with their tables loaded.
+     * @throws IOException - If there are problems reading or writing the tables.
+     */
+    private static List<Heuristic> heuristicsOf(int size) throws IOException {
+        List<Heuristic> heuristics = new ArrayList<>();
+        heuristics.add(new ManhattanLinearConflict());
+        heuristics.add(new WalkingDistance());
+        if (size == EightPuzzleTable.SIZE) {
+            heuristics.add(EightPuzzleTable.openOrGenerate(PatternDatabase.DATABASE_FOLDER_PATH));
+        }
+        if (size == 3 || size == 4) {
+            heuristics.add(PatternDatabase.openOrGenerate(PatternDatabase.DATABASE_FOLDER_PATH, size));
+        }
+        List<Heuristic> supported = new ArrayList<>();
+        for (Heuristic heuristic : heuristics) {
+            if (heuristic.supports(size)) {
+                supported.add(heuristic);
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Measures the heap used after a full collection.
+     * @return the bytes of the heap in use.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Runs the comparison and prints the report.
+     * @param args - CLI arguments. Optionally, the size of the boards, the number of boards, the number of random
+     *             movements from the solution (or -1 for uniformly random boards) and the seed.
+     * @throws IOException - If there are problems with the tables of the heuristics.
+     * @throws UnsolvablePuzzleException - If there is a solution file whose parity differs from the ordered one.
+     */
+    public static void main(String[] args) throws IOException, UnsolvablePuzzleException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        ScrambleGenerator generator = new ScrambleGenerator(seed);
+        int[][][] boards = new int[count][][];
+        for (int board = 0; board < count; board++) {
+            boards[board] = depth == ScrambleGenerator.SHUFFLE ? generator.randomBoard(size)
+                    : generator.randomWalkBoard(size, depth);
+        }
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean threadBean = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+        long threadId = Thread.currentThread().getId();
+
+        System.out.println("# " + count + " boards of " + size + "x" + size + (depth == ScrambleGenerator.SHUFFLE
+                ? ", uniformly random" : ", " + depth + " random movements") + ", seed " + seed);
+        System.out.printf(Locale.ROOT, "%-30s %14s %12s %14s %12s %14s %10s%n", "heuristic", "nodes", "time ms",
+                "nodes/s", "heap KB", "alloc B/solve", "moves");
+        int[] expectedLengths = null;
+        String expectedName = null;
+        for (Heuristic heuristic : heuristicsOf(size)) {
+            long heapBefore = usedHeap();
+            IdaStarSolver solver = new IdaStarSolver(heuristic);
+            // The first board is solved once before measuring, so the table is built and the search is compiled.
+            solver.solve(new Puzzle(boards[0]));
+            long tableBytes = Math.max(0, usedHeap() - heapBefore);
+
+            long nodes = 0;
+            long moves = 0;
+            int[] lengths = new int[count];
+            long allocatedBefore = threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int board = 0; board < count; board++) {
+                Solution solution = solver.solve(new Puzzle(boards[board]));
+                nodes += solution.getNodesExpanded();
+                moves += solution.getLength();
+                lengths[board] = solution.getLength();
+            }
+            long elapsed = System.nanoTime() - start;
+            String allocated = threadBean == null ? "n/a" : Long.toString(
+                    (threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / count);
+            System.out.printf(Locale.ROOT, "%-30s %14d %12.1f %14.0f %12d %14s %10d%n", heuristic.getName(), nodes,
+                    elapsed / 1e6, nodes * 1e9 / elapsed, tableBytes / 1024, allocated, moves);
+            if (expectedLengths == null) {
+                expectedLengths = lengths;
+                expectedName = heuristic.getName();
+            } else {
+                for (int board = 0; board < count; board++) {
+                    if (lengths[board] != expectedLengths[board]) {
+                        System.out.println("# MISMATCH board " + board + ": " + lengths[board] + " moves, "
+                                + expectedName + " found " + expectedLengths[board]);
+                    }
+                }
+            }
+        }
+    }
+}
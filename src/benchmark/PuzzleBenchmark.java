@@ -0,0 +1,137 @@
+package benchmark;
+
+import model.Board;
+import model.Puzzle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The benchmarks of the hot paths of {@link Puzzle}: movements, neighbour checks and solved checks over random walks
+ * for several board sizes, plus the load latency of every file of the games folder. Run it from the project folder
+ * and compare the report with benchmarks/baseline.txt, so the impact of every change can be tracked.
+ */
+public class PuzzleBenchmark {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the board sizes of the parameterized benchmarks.
+     */
+    private final static int[] BOARD_SIZES = {3, 4, 5, 8, 10};
+
+    /**
+     * Represents the number of movements of the random walks.
+     */
+    private final static int WALK_LENGTH = 4096;
+
+    /**
+     * Represents the path to the folder with the games whose load is measured.
+     */
+    private final static String GAME_FOLDER_PATH = "./games/";
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds the tokens of a random walk that ends where it started, so it can be replayed forever: a random walk
+     * of the blank token followed by the same movements undone in reverse order.
+     * @param puzzle - Is the puzzle where the walk starts. It is left as it was.
+     * @param length - Is the number of random movements, half of the walk.
+     * @param random - Is the source of randomness.
+     * @return the tokens to move, in order.
+     */
+    static int[] randomWalk(Puzzle puzzle, int length, SplittableRandom random) {
+        int size = puzzle.getPuzzleBoard().length;
+        int[] tokens = new int[length * 2];
+        for (int i = 0; i < length; ) {
+            int token = 1 + random.nextInt(size * size - 1);
+            if ((i == 0 || token != tokens[i - 1]) && puzzle.doMove(token)) {
+                tokens[i] = token;
+                tokens[tokens.length - 1 - i] = token;
+                i++;
+            }
+        }
+        for (int i = length; i < tokens.length; i++) {
+            puzzle.doMove(tokens[i]);
+        }
+        return tokens;
+    }
+
+    /**
+     * Runs every benchmark and prints the report.
+     * @param args - CLI arguments. Optionally, the duration of every iteration in milliseconds.
+     * @throws IOException - If there are problems loading the games.
+     */
+    public static void main(String[] args) throws IOException {
+        long iterationMillis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        BenchmarkRunner runner = new BenchmarkRunner(3, 5, iterationMillis);
+        SplittableRandom random = new SplittableRandom(42);
+        System.out.println("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                + ", " + Runtime.getRuntime().availableProcessors() + " cores");
+
+        for (int size : BOARD_SIZES) {
+            Puzzle puzzle = new Puzzle(Board.orderedMatrix(size));
+            int[] walk = randomWalk(puzzle, WALK_LENGTH, random);
+            int[] cursor = new int[1];
+
+            System.out.println(runner.measure("doMove/" + size + "x" + size, times -> {
+                long moved = 0;
+                int next = cursor[0];
+                for (int i = 0; i < times; i++) {
+                    moved += puzzle.doMove(walk[next]) ? 1 : 0;
+                    next = next + 1 == walk.length ? 0 : next + 1;
+                }
+                cursor[0] = next;
+                return moved;
+            }, walk.length));
+
+            System.out.println(runner.measure("isBlankNeighbour/" + size + "x" + size, times -> {
+                long neighbours = 0;
+                int tokenCount = size * size - 1;
+                for (int i = 0; i < times; i++) {
+                    neighbours += puzzle.isBlankNeighbour(1 + i % tokenCount) ? 1 : 0;
+                }
+                return neighbours;
+            }, 4096));
+
+            System.out.println(runner.measure("doMove+puzzleSolved/" + size + "x" + size, times -> {
+                long solved = 0;
+                int next = cursor[0];
+                for (int i = 0; i < times; i++) {
+                    puzzle.doMove(walk[next]);
+                    solved += puzzle.puzzleSolved() ? 1 : 0;
+                    next = next + 1 == walk.length ? 0 : next + 1;
+                }
+                cursor[0] = next;
+                return solved;
+            }, walk.length));
+        }
+
+        File[] games = new File(GAME_FOLDER_PATH).listFiles(File::isFile);
+        if (games != null) {
+            Arrays.sort(games);
+            Puzzle puzzle = new Puzzle(Board.orderedMatrix(3));
+            for (File game : games) {
+                String path = game.getPath();
+                System.out.println(runner.measure("loadGame/" + game.getName(), times -> {
+                    long movements = 0;
+                    for (int i = 0; i < times; i++) {
+                        try {
+                            puzzle.loadGame(path);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        movements += puzzle.getMovements();
+                    }
+                    return movements;
+                }, 16));
+            }
+        }
+    }
+}
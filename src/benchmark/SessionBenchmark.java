@@ -0,0 +1,114 @@
+package benchmark;
+
+import model.UnsolvablePuzzleException;
+import server.SessionManager;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A load test of the {@link SessionManager}: several threads move the blank token of random sessions in random
+ * directions for a fixed time, and the total throughput is reported with the bytes allocated per movement. Every
+ * thread picks among all the sessions, so the threads contend for the stripes as real clients would.
+ */
+public class SessionBenchmark {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the number of movements between two checks of the clock.
+     */
+    private final static int BATCH_SIZE = 4096;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the sink of the results of the movements, so the JIT can not remove them.
+     */
+    private static volatile long sink;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Runs the load test and prints the report.
+     * @param args - CLI arguments. Optionally, the number of threads, the number of sessions, the board size and the
+     *             duration in milliseconds.
+     * @throws IOException - If there are problems opening the sessions.
+     * @throws UnsolvablePuzzleException - If there is a solution file whose parity differs from the ordered one.
+     * @throws InterruptedException - If the test is interrupted.
+     */
+    public static void main(String[] args) throws IOException, UnsolvablePuzzleException, InterruptedException {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int sessionCount = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long durationMillis = args.length > 3 ? Long.parseLong(args[3]) : 5000;
+
+        SessionManager manager = new SessionManager();
+        long[] sessionIds = new long[sessionCount];
+        for (int session = 0; session < sessionCount; session++) {
+            sessionIds[session] = manager.openRandomSession(size);
+        }
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean threadBean = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+        if (threadBean != null) {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        AtomicLong totalMoves = new AtomicLong();
+        AtomicLong totalAllocated = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        SplittableRandom seeds = new SplittableRandom(42);
+        for (int t = 0; t < threadCount; t++) {
+            SplittableRandom random = seeds.split();
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long threadId = Thread.currentThread().getId();
+                long allocatedBefore = threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(threadId);
+                long deadline = System.nanoTime() + durationMillis * 1000000;
+                long moves = 0;
+                long result = 0;
+                do {
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        result += manager.moveBlank(sessionIds[random.nextInt(sessionIds.length)],
+                                random.nextInt(4));
+                    }
+                    moves += BATCH_SIZE;
+                } while (System.nanoTime() < deadline);
+                if (threadBean != null) {
+                    totalAllocated.addAndGet(threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore);
+                }
+                sink = result;
+                totalMoves.addAndGet(moves);
+            }, "session-load-" + t);
+            threads[t].start();
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        long moves = totalMoves.get();
+        System.out.printf(Locale.ROOT, "%d threads, %d sessions of %dx%d: %.0f moves/s, %s B/move%n", threadCount,
+                sessionCount, size, size, moves / seconds, threadBean == null ? "n/a" :
+                        String.format(Locale.ROOT, "%.2f", (double) totalAllocated.get() / moves));
+    }
+}
@@ -0,0 +1,196 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A board of any size stored in two flat arrays: the token of every cell and the cell of every token. The memory used
+ * grows linearly with the number of cells, and a movement only writes four entries. The blank token is stored as 0.
+ */
+public class ArrayBoard implements Board {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the size of the board. The board is always squared.
+     */
+    private final int size;
+
+    /**
+     * Represents the token of every cell, in row-major order.
+     */
+    private final int[] cells;
+
+    /**
+     * Represents the cell of every token. The blank token is the token 0.
+     */
+    private final int[] positions;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a board from its matrix representation.
+     * @param board - Is the squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     * @throws IllegalArgumentException - If the board is not squared or its tokens are not a permutation. The blank
+     * must be {@link Puzzle#BLANK_TOKEN}, a literal 0 is rejected as in {@link PackedBoard}.
+     */
+    public ArrayBoard(int[][] board) throws IllegalArgumentException {
+        size = board.length;
+        if (size < 2) {
+            throw new IllegalArgumentException("Unsupported puzzle size: " + size);
+        }
+        cells = new int[size * size];
+        positions = new int[size * size];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < size; i++) {
+            if (board[i].length != size) {
+                throw new IllegalArgumentException("The puzzle board must be squared");
+            }
+            for (int j = 0; j < size; j++) {
+                int token = board[i][j] == Puzzle.BLANK_TOKEN ? 0 : board[i][j];
+                if ((token < 1 && board[i][j] != Puzzle.BLANK_TOKEN) || token >= cells.length) {
+                    throw new IllegalArgumentException("Invalid token " + board[i][j] + " at " + i + "-" + j);
+                }
+                if (positions[token] != -1) {
+                    throw new IllegalArgumentException("Repeated token " + board[i][j] + " at " + i + "-" + j);
+                }
+                cells[i * size + j] = token;
+                positions[token] = i * size + j;
+            }
+        }
+    }
+
+    /**
+     * Builds a board that copies the arrays of another one.
+     * @param board - Is the board to copy.
+     */
+    private ArrayBoard(ArrayBoard board) {
+        size = board.size;
+        cells = board.cells.clone();
+        positions = board.positions.clone();
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the size of the board.
+     * @return the number of rows (and columns) of the board.
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the index of the cell where the blank token is placed.
+     * @return the index of the blank token, in row-major order.
+     */
+    @Override
+    public int getBlankIndex() {
+        return positions[0];
+    }
+
+    /**
+     * Gets the token placed in the specified cell.
+     * @param index - Is the index of the cell, in row-major order.
+     * @return the token in the cell, or {@link Puzzle#BLANK_TOKEN} if the cell is the blank one.
+     */
+    @Override
+    public int getToken(int index) {
+        int token = cells[index];
+        return token == 0 ? Puzzle.BLANK_TOKEN : token;
+    }
+
+    /**
+     * Finds the cell where the specified token is placed, in constant time.
+     * @param token - Is the token to find.
+     * @return the index of the cell where the token is placed, or -1 if the token is not in the board.
+     */
+    @Override
+    public int indexOf(int token) {
+        if (token == Puzzle.BLANK_TOKEN) {
+            return positions[0];
+        }
+        if (token < 1 || token >= positions.length) {
+            return -1;
+        }
+        return positions[token];
+    }
+
+    /**
+     * Checks if the specified cell is next to the blank token, horizontally or vertically.
+     * @param index - Is the index of the cell to check.
+     * @return true if the cell is a neighbour of the blank token, false otherwise.
+     */
+    @Override
+    public boolean isBlankNeighbour(int index) {
+        int blankIndex = positions[0];
+        int rowDistance = index / size - blankIndex / size;
+        int columnDistance = index % size - blankIndex % size;
+        return rowDistance * rowDistance + columnDistance * columnDistance == 1;
+    }
+
+    /**
+     * Moves the token placed in the specified cell to the blank cell, if they are neighbours.
+     * @param index - Is the index of the cell of the token to move.
+     * @return true if the token was moved, false if the cell is not a neighbour of the blank token.
+     */
+    @Override
+    public boolean moveToken(int index) {
+        if (!isBlankNeighbour(index)) {
+            return false;
+        }
+        int blankIndex = positions[0];
+        int token = cells[index];
+        cells[blankIndex] = token;
+        cells[index] = 0;
+        positions[token] = blankIndex;
+        positions[0] = index;
+        return true;
+    }
+
+    /**
+     * Converts the board to its matrix representation.
+     * @return a new squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     */
+    @Override
+    public int[][] toMatrix() {
+        int[][] board = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                board[i][j] = getToken(i * size + j);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Creates an independent copy of this board.
+     * @return a new array board with the same tokens.
+     */
+    @Override
+    public ArrayBoard copy() {
+        return new ArrayBoard(this);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ArrayBoard)) {
+            return false;
+        }
+        return Arrays.equals(cells, ((ArrayBoard) other).cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+}
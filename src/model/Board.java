@@ -0,0 +1,91 @@
+package model;
+
+/**
+ * The storage of a squared puzzle board. Cells are indexed in row-major order (row * size + column), and every board
+ * keeps an index with the cell of every token, so finding and moving a token take constant time.
+ */
+public interface Board {
+
+    /**
+     * Gets the size of the board.
+     * @return the number of rows (and columns) of the board.
+     */
+    int getSize();
+
+    /**
+     * Gets the index of the cell where the blank token is placed.
+     * @return the index of the blank token, in row-major order.
+     */
+    int getBlankIndex();
+
+    /**
+     * Gets the token placed in the specified cell.
+     * @param index - Is the index of the cell, in row-major order.
+     * @return the token in the cell, or {@link Puzzle#BLANK_TOKEN} if the cell is the blank one.
+     */
+    int getToken(int index);
+
+    /**
+     * Finds the cell where the specified token is placed, in constant time.
+     * @param token - Is the token to find.
+     * @return the index of the cell where the token is placed, or -1 if the token is not in the board.
+     */
+    int indexOf(int token);
+
+    /**
+     * Checks if the specified cell is next to the blank token, horizontally or vertically.
+     * @param index - Is the index of the cell to check.
+     * @return true if the cell is a neighbour of the blank token, false otherwise.
+     */
+    boolean isBlankNeighbour(int index);
+
+    /**
+     * Moves the token placed in the specified cell to the blank cell, if they are neighbours.
+     * @param index - Is the index of the cell of the token to move.
+     * @return true if the token was moved, false if the cell is not a neighbour of the blank token.
+     */
+    boolean moveToken(int index);
+
+    /**
+     * Converts the board to its matrix representation.
+     * @return a new squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     */
+    int[][] toMatrix();
+
+    /**
+     * Creates an independent copy of this board.
+     * @return a new board with the same tokens.
+     */
+    Board copy();
+
+    /**
+     * Builds the most compact board for a matrix of tokens: a {@link PackedBoard} up to 4x4, and an
+     * {@link ArrayBoard} for bigger sizes.
+     * @param board - Is the squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     * @return the board that holds the tokens.
+     * @throws IllegalArgumentException - If the matrix is not a valid board.
+     */
+    static Board of(int[][] board) throws IllegalArgumentException {
+        if (board.length <= PackedBoard.MAX_SIZE) {
+            return new PackedBoard(board);
+        }
+        return new ArrayBoard(board);
+    }
+
+    /**
+     * Builds the ordered solution of the specified size: the tokens from 1 in row-major order and the blank token in
+     * the last cell.
+     * @param size - Is the size of the board.
+     * @return the matrix of tokens of the solution.
+     */
+    static int[][] orderedMatrix(int size) {
+        int[][] board = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                board[i][j] = i * size + j + 1;
+            }
+        }
+        board[size - 1][size - 1] = Puzzle.BLANK_TOKEN;
+        return board;
+    }
+}
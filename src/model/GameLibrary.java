@@ -0,0 +1,456 @@
+package model;
+
+import model.io.BinaryPuzzleFormat;
+import model.io.PropertiesPuzzleFormat;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The games of a folder. The folder is indexed once, keeping the size, the Zobrist hash and the solvability of the
+ * board of every game file, and the boards are kept in a bounded cache that evicts the least recently used one, so
+ * loading a game that is cached reads nothing from disk. The solutions of every size are kept in memory by
+ * {@link Puzzle} itself.
+ * <p>
+ * Once watching, the library follows the changes of the folder with a {@link WatchService}: a new or modified file is
+ * indexed again and a deleted one is dropped, and any change of the solution folder makes the puzzles read their
+ * solutions again. The library is thread safe.
+ */
+public class GameLibrary implements Closeable {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the number of boards kept in memory by default.
+     */
+    public final static int DEFAULT_MAX_CACHED_BOARDS = 64;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the indexed folder.
+     */
+    private final Path folder;
+
+    /**
+     * Represents the game of every file name, sorted by name.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Represents the boards already read, by file name, with the least recently used one first.
+     */
+    private final Map<String, int[][]> boards;
+
+    /**
+     * Represents the number of the latest read of every file being indexed. A read is only published if no other
+     * read or removal of the same file started after it.
+     */
+    private final Map<String, Long> latestReads;
+
+    /**
+     * Represents the number of the last read started by {@link #indexFile(String)}.
+     */
+    private long readSequence;
+
+    /**
+     * Represents the service that watches the folders, or null if the library is not watching.
+     */
+    private WatchService watchService;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds an empty library over a folder. Nothing is read until {@link #index()} is called.
+     * @param folderPath - Is the folder of the games.
+     * @param maxCachedBoards - Is the number of boards kept in memory.
+     */
+    public GameLibrary(String folderPath, int maxCachedBoards) {
+        this.folder = new File(folderPath).toPath().toAbsolutePath().normalize();
+        this.entries = new TreeMap<>();
+        this.boards = new LinkedHashMap<String, int[][]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, int[][]> eldest) {
+                return size() > maxCachedBoards;
+            }
+        };
+        this.latestReads = new HashMap<>();
+    }
+
+    /**
+     * Builds an empty library over a folder, keeping {@link #DEFAULT_MAX_CACHED_BOARDS} boards in memory.
+     * @param folderPath - Is the folder of the games.
+     */
+    public GameLibrary(String folderPath) {
+        this(folderPath, DEFAULT_MAX_CACHED_BOARDS);
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Indexes every game file of the folder, replacing the previous index. The files that can not be read are left
+     * out of the index.
+     * @throws IOException - If the folder can not be listed.
+     */
+    public void index() throws IOException {
+        File[] files = folder.toFile().listFiles(File::isFile);
+        if (files == null) {
+            throw new FileNotFoundException("The folder " + folder + " can not be listed");
+        }
+        synchronized (this) {
+            entries.clear();
+            boards.clear();
+        }
+        for (File file : files) {
+            indexFile(file.getName());
+        }
+    }
+
+    /**
+     * Gets the indexed games.
+     * @return the games, sorted by file name.
+     */
+    public synchronized List<Entry> getGames() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Gets the indexed game of a file.
+     * @param filePath - Is the path of the file.
+     * @return the game, or null if the file is not indexed.
+     */
+    public synchronized Entry getGame(String filePath) {
+        String fileName = fileNameOf(filePath);
+        return fileName == null ? null : entries.get(fileName);
+    }
+
+    /**
+     * Gets the board of an indexed game, from the cache if it is there.
+     * @param filePath - Is the path of the file.
+     * @return a new matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     * @throws IOException - If the file is not indexed or there are problems reading it.
+     */
+    public int[][] loadBoard(String filePath) throws IOException {
+        String fileName = fileNameOf(filePath);
+        Entry entry;
+        int[][] board;
+        synchronized (this) {
+            entry = fileName == null ? null : entries.get(fileName);
+            if (entry == null) {
+                throw new FileNotFoundException("The game " + filePath + " is not in the library");
+            }
+            board = boards.get(fileName);
+        }
+        if (board == null) {
+            board = readBoard(fileName);
+            synchronized (this) {
+                // The file may have changed while it was read, and then the board of the new entry is the one cached.
+                if (entries.get(fileName) == entry) {
+                    boards.put(fileName, board);
+                }
+            }
+        }
+        return copyOf(board);
+    }
+
+    /**
+     * Starts following the changes of the game folder, and of the solution folder if it exists, from a daemon
+     * thread. Nothing is done if the library is already watching.
+     * @throws IOException - If the folders can not be watched.
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        WatchService service = FileSystems.getDefault().newWatchService();
+        folder.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        File solutionFolder = new File(Puzzle.SOLUTION_FOLDER_PATH);
+        if (solutionFolder.isDirectory()) {
+            solutionFolder.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        watchService = service;
+        Thread watcher = new Thread(() -> watch(service), "game-library-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops following the changes of the folders.
+     * @throws IOException - If there are problems closing the watch service.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    /**
+     * Applies the changes of the folders until the watch service is closed.
+     * @param service - Is the watch service.
+     */
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean gameFolder = folder.equals(((Path) key.watchable()).toAbsolutePath().normalize());
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (!gameFolder) {
+                        Puzzle.forgetSolutions();
+                    } else if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        index();
+                    } else {
+                        String fileName = event.context().toString();
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                            removeFile(fileName);
+                        } else {
+                            indexFile(fileName);
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The library was closed.
+        } catch (IOException e) {
+            // The folder went away, so there is nothing left to watch.
+        }
+    }
+
+    /**
+     * Indexes a file of the folder, replacing its previous entry. A file that is not a game, or can not be read, is
+     * dropped from the index. The file is read outside the lock, so the result is dropped if the file was read again,
+     * or removed, in the meantime: the later change is the one that stays.
+     * @param fileName - Is the name of the file.
+     */
+    private void indexFile(String fileName) {
+        if (!isGameFile(fileName)) {
+            return;
+        }
+        long sequence;
+        synchronized (this) {
+            sequence = ++readSequence;
+            latestReads.put(fileName, sequence);
+        }
+        try {
+            int[][] board = readBoard(fileName);
+            Board state = Board.of(board);
+            boolean solvable = true;
+            try {
+                new Puzzle(board);
+            } catch (UnsolvablePuzzleException e) {
+                solvable = false;
+            }
+            Entry entry = new Entry(fileName, folder.resolve(fileName).toString(), board.length, Zobrist.hash(state),
+                    solvable);
+            synchronized (this) {
+                if (isLatestRead(fileName, sequence)) {
+                    entries.put(fileName, entry);
+                    boards.put(fileName, board);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            synchronized (this) {
+                if (isLatestRead(fileName, sequence)) {
+                    entries.remove(fileName);
+                    boards.remove(fileName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a read of a file is still the latest one, and if so ends it. Called with the lock held.
+     * @param fileName - Is the name of the file.
+     * @param sequence - Is the number of the read.
+     * @return true if no other read or removal of the file started after it, so its result can be published.
+     */
+    private boolean isLatestRead(String fileName, long sequence) {
+        Long latest = latestReads.get(fileName);
+        if (latest == null || latest != sequence) {
+            return false;
+        }
+        latestReads.remove(fileName);
+        return true;
+    }
+
+    /**
+     * Drops a file from the index and the cache. A read of the file still running is not published.
+     * @param fileName - Is the name of the file.
+     */
+    private synchronized void removeFile(String fileName) {
+        latestReads.remove(fileName);
+        entries.remove(fileName);
+        boards.remove(fileName);
+    }
+
+    /**
+     * Reads the board of a file of the folder.
+     * @param fileName - Is the name of the file.
+     * @return the matrix of tokens of the board.
+     * @throws IOException - If there are problems reading the file.
+     * @throws NumberFormatException - If there are problems parsing strings to integers.
+     */
+    private int[][] readBoard(String fileName) throws IOException, NumberFormatException {
+        return Puzzle.readBoard(folder.resolve(fileName).toString());
+    }
+
+    /**
+     * Gets the name of a file if it is placed in the folder of the library.
+     * @param filePath - Is the path of the file.
+     * @return the name of the file, or null if the file is in another folder.
+     */
+    private String fileNameOf(String filePath) {
+        Path path = new File(filePath).toPath().toAbsolutePath().normalize();
+        return folder.equals(path.getParent()) ? path.getFileName().toString() : null;
+    }
+
+    /**
+     * Checks if a file has the extension of a game board, in the properties or the binary format.
+     * @param fileName - Is the name of the file.
+     * @return true if the file is a game.
+     */
+    private static boolean isGameFile(String fileName) {
+        return fileName.endsWith("." + PropertiesPuzzleFormat.GAME_EXTENSION)
+                || fileName.endsWith("." + BinaryPuzzleFormat.GAME_EXTENSION);
+    }
+
+    /**
+     * Copies a board, so the cached one can not be changed by the callers.
+     * @param board - Is the board to copy.
+     * @return a new matrix with the same tokens.
+     */
+    private static int[][] copyOf(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int row = 0; row < board.length; row++) {
+            copy[row] = board[row].clone();
+        }
+        return copy;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Inner classes
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The index entry of a game file.
+     */
+    public static class Entry {
+
+        /**
+         * Represents the name of the file.
+         */
+        private final String fileName;
+
+        /**
+         * Represents the path of the file.
+         */
+        private final String filePath;
+
+        /**
+         * Represents the size of the board.
+         */
+        private final int size;
+
+        /**
+         * Represents the Zobrist hash of the board.
+         */
+        private final long hash;
+
+        /**
+         * Represents whether the board can reach the solution.
+         */
+        private final boolean solvable;
+
+        /**
+         * Builds an entry.
+         * @param fileName - Is the name of the file.
+         * @param filePath - Is the path of the file.
+         * @param size - Is the size of the board.
+         * @param hash - Is the Zobrist hash of the board.
+         * @param solvable - Is true if the board can reach the solution.
+         */
+        private Entry(String fileName, String filePath, int size, long hash, boolean solvable) {
+            this.fileName = fileName;
+            this.filePath = filePath;
+            this.size = size;
+            this.hash = hash;
+            this.solvable = solvable;
+        }
+
+        /**
+         * Gets the name of the file.
+         * @return the file name, without folder.
+         */
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Gets the path of the file.
+         * @return the absolute path of the file.
+         */
+        public String getFilePath() {
+            return filePath;
+        }
+
+        /**
+         * Gets the size of the board.
+         * @return the number of rows (and columns) of the board.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the Zobrist hash of the board, which is the one of a {@link Puzzle} with the same board.
+         * @return the 64 bits hash of the board.
+         */
+        public long getHash() {
+            return hash;
+        }
+
+        /**
+         * Checks if the board can reach the solution.
+         * @return true if the game can be played.
+         */
+        public boolean isSolvable() {
+            return solvable;
+        }
+
+        /**
+         * Describes the game for the lists of games.
+         * @return the file name and the size.
+         */
+        @Override
+        public String toString() {
+            return fileName + " (" + size + "x" + size + (solvable ? ")" : ", unsolvable)");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The history of the movements of a game, for undo and redo. Every movement is stored as a single byte with the
+ * direction of the blank token, so a million movements take a megabyte. The movements after the cursor are the ones
+ * that can be redone; a new movement discards them.
+ */
+public class MoveHistory {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the initial capacity of the history.
+     */
+    private final static int INITIAL_CAPACITY = 64;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the direction of the blank token in every movement, in order.
+     */
+    private byte[] directions;
+
+    /**
+     * Represents the number of movements done, which is the position of the next movement to redo.
+     */
+    private int cursor;
+
+    /**
+     * Represents the number of movements stored, done or undone.
+     */
+    private int length;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds an empty history.
+     */
+    public MoveHistory() {
+        directions = new byte[INITIAL_CAPACITY];
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the direction that reverses a movement of the blank token.
+     * @param direction - Is the direction of the blank token, as defined by {@link Puzzle#BLANK_UP} and the others.
+     * @return the opposite direction.
+     */
+    public static int opposite(int direction) {
+        // Up and down, and right and left, differ only in the second bit.
+        return direction ^ 2;
+    }
+
+    /**
+     * Stores a new movement, discarding the movements that could be redone.
+     * @param direction - Is the direction of the blank token in the movement.
+     */
+    public void record(int direction) {
+        if (cursor == directions.length) {
+            directions = Arrays.copyOf(directions, directions.length * 2);
+        }
+        directions[cursor++] = (byte) direction;
+        length = cursor;
+    }
+
+    /**
+     * Checks if there is a movement to undo.
+     * @return true if at least one movement has been done.
+     */
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    /**
+     * Checks if there is a movement to redo.
+     * @return true if at least one movement has been undone since the last new movement.
+     */
+    public boolean canRedo() {
+        return cursor < length;
+    }
+
+    /**
+     * Gets the direction that would undo the last movement done, without moving the cursor.
+     * @return the direction of the blank token that reverses the movement, or -1 if there is no movement to undo.
+     */
+    public int peekUndo() {
+        return canUndo() ? opposite(directions[cursor - 1]) : -1;
+    }
+
+    /**
+     * Gets the direction of the last movement undone, without moving the cursor.
+     * @return the direction of the blank token in the movement, or -1 if there is no movement to redo.
+     */
+    public int peekRedo() {
+        return canRedo() ? directions[cursor] : -1;
+    }
+
+    /**
+     * Moves the cursor back over the last movement done.
+     * @return the direction of the blank token that reverses the movement.
+     * @throws IllegalStateException - If there is no movement to undo.
+     */
+    public int undo() throws IllegalStateException {
+        if (!canUndo()) {
+            throw new IllegalStateException("There is no movement to undo");
+        }
+        return opposite(directions[--cursor]);
+    }
+
+    /**
+     * Moves the cursor forward over the last movement undone.
+     * @return the direction of the blank token in the movement.
+     * @throws IllegalStateException - If there is no movement to redo.
+     */
+    public int redo() throws IllegalStateException {
+        if (!canRedo()) {
+            throw new IllegalStateException("There is no movement to redo");
+        }
+        return directions[cursor++];
+    }
+}
@@ -0,0 +1,234 @@
+package model;
+
+/**
+ * A compact representation of a squared puzzle board of size 3x3 or 4x4. Every token is packed in a single long using
+ * 4 bits per cell, in row-major order starting from the least significant bits. The blank token is stored as 0.
+ */
+public class PackedBoard implements Board {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the biggest board size that fits in a single long.
+     */
+    public final static int MAX_SIZE = 4;
+
+    /**
+     * Represents the number of bits used by every cell of the board.
+     */
+    private final static int BITS_PER_CELL = 4;
+
+    /**
+     * Represents the mask of a single cell.
+     */
+    private final static long CELL_MASK = 0xFL;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the size of the board. The board is always squared.
+     */
+    private final int size;
+
+    /**
+     * Represents the tokens of the board, 4 bits per cell.
+     */
+    private long cells;
+
+    /**
+     * Represents the cell (row * size + column) of every token, 4 bits per token. The blank token is the token 0.
+     */
+    private long positions;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a packed board from its matrix representation.
+     * @param board - Is the squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     * @throws IllegalArgumentException - If the board does not fit in a long or has tokens out of range.
+     */
+    public PackedBoard(int[][] board) throws IllegalArgumentException {
+        size = board.length;
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported puzzle size for a packed board: " + size);
+        }
+        int blankIndex = -1;
+        int maxToken = size * size - 1;
+        int seenTokens = 0;
+        for (int i = 0; i < size; i++) {
+            if (board[i].length != size) {
+                throw new IllegalArgumentException("The puzzle board must be squared");
+            }
+            for (int j = 0; j < size; j++) {
+                int token = board[i][j];
+                int index = i * size + j;
+                if (token == Puzzle.BLANK_TOKEN) {
+                    token = 0;
+                    blankIndex = index;
+                } else if (token < 1 || token > maxToken) {
+                    throw new IllegalArgumentException("Invalid token " + token + " at " + i + "-" + j);
+                }
+                if ((seenTokens & (1 << token)) != 0) {
+                    throw new IllegalArgumentException("Repeated token " + board[i][j] + " at " + i + "-" + j);
+                }
+                seenTokens |= 1 << token;
+                if (token != 0) {
+                    cells |= ((long) token) << (index * BITS_PER_CELL);
+                    positions |= ((long) index) << (token * BITS_PER_CELL);
+                }
+            }
+        }
+        if (blankIndex == -1) {
+            throw new IllegalArgumentException("The puzzle board has no blank token");
+        }
+        positions |= blankIndex;
+    }
+
+    /**
+     * Builds a packed board from its already packed parts.
+     * @param size - Is the size of the board.
+     * @param cells - Are the packed tokens of the board.
+     * @param positions - Are the packed cells of every token.
+     */
+    private PackedBoard(int size, long cells, long positions) {
+        this.size = size;
+        this.cells = cells;
+        this.positions = positions;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the size of the board.
+     * @return the number of rows (and columns) of the board.
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the packed tokens of the board.
+     * @return a long with 4 bits per cell, where the blank token is 0.
+     */
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * Gets the index of the cell where the blank token is placed.
+     * @return the index of the blank token, in row-major order.
+     */
+    @Override
+    public int getBlankIndex() {
+        return (int) (positions & CELL_MASK);
+    }
+
+    /**
+     * Gets the token placed in the specified cell.
+     * @param index - Is the index of the cell, in row-major order.
+     * @return the token in the cell, or {@link Puzzle#BLANK_TOKEN} if the cell is the blank one.
+     */
+    @Override
+    public int getToken(int index) {
+        int token = (int) ((cells >>> (index * BITS_PER_CELL)) & CELL_MASK);
+        return token == 0 ? Puzzle.BLANK_TOKEN : token;
+    }
+
+    /**
+     * Finds the cell where the specified token is placed, in constant time.
+     * @param token - Is the token to find.
+     * @return the index of the cell where the token is placed, or -1 if the token is not in the board.
+     */
+    @Override
+    public int indexOf(int token) {
+        if (token == Puzzle.BLANK_TOKEN) {
+            token = 0;
+        } else if (token < 1 || token >= size * size) {
+            return -1;
+        }
+        return (int) ((positions >>> (token * BITS_PER_CELL)) & CELL_MASK);
+    }
+
+    /**
+     * Checks if the specified cell is next to the blank token, horizontally or vertically.
+     * @param index - Is the index of the cell to check.
+     * @return true if the cell is a neighbour of the blank token, false otherwise.
+     */
+    @Override
+    public boolean isBlankNeighbour(int index) {
+        int blankIndex = getBlankIndex();
+        int rowDistance = index / size - blankIndex / size;
+        int columnDistance = index % size - blankIndex % size;
+        return rowDistance * rowDistance + columnDistance * columnDistance == 1;
+    }
+
+    /**
+     * Moves the token placed in the specified cell to the blank cell, if they are neighbours.
+     * @param index - Is the index of the cell of the token to move.
+     * @return true if the token was moved, false if the cell is not a neighbour of the blank token.
+     */
+    @Override
+    public boolean moveToken(int index) {
+        if (!isBlankNeighbour(index)) {
+            return false;
+        }
+        int blankIndex = getBlankIndex();
+        long token = (cells >>> (index * BITS_PER_CELL)) & CELL_MASK;
+        // The blank cell is always 0, so xor-ing the token in both cells swaps them.
+        cells ^= (token << (index * BITS_PER_CELL)) | (token << (blankIndex * BITS_PER_CELL));
+        int tokenShift = (int) token * BITS_PER_CELL;
+        positions = (positions & ~(CELL_MASK << tokenShift) & ~CELL_MASK)
+                | ((long) blankIndex << tokenShift) | index;
+        return true;
+    }
+
+    /**
+     * Converts the packed board to its matrix representation.
+     * @return a new squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     */
+    @Override
+    public int[][] toMatrix() {
+        int[][] board = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                board[i][j] = getToken(i * size + j);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Creates an independent copy of this board.
+     * @return a new packed board with the same tokens.
+     */
+    @Override
+    public PackedBoard copy() {
+        return new PackedBoard(size, cells, positions);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PackedBoard)) {
+            return false;
+        }
+        PackedBoard board = (PackedBoard) other;
+        return size == board.size && cells == board.cells;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cells * 0x9E3779B97F4A7C15L) ^ size;
+    }
+}
@@ -1,9 +1,14 @@
 package model;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import model.io.BinaryPuzzleFormat;
+import model.io.GameJournal;
+import model.io.PropertiesPuzzleFormat;
+import model.metrics.Metrics;
+
+import java.io.File;
 import java.io.IOException;
-import java.util.Properties;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class Puzzle {
 
@@ -26,6 +31,47 @@ public class Puzzle {
      */
     public final static int BLANK_TOKEN = -1;
 
+    /**
+     * Represents the path to the folder where the solution files are saved.
+     */
+    public final static String SOLUTION_FOLDER_PATH = "./solutions/";
+
+    /**
+     * Represents the movement of the blank token to the upper cell.
+     */
+    public final static int BLANK_UP = 0;
+
+    /**
+     * Represents the movement of the blank token to the right cell.
+     */
+    public final static int BLANK_RIGHT = 1;
+
+    /**
+     * Represents the movement of the blank token to the lower cell.
+     */
+    public final static int BLANK_DOWN = 2;
+
+    /**
+     * Represents the movement of the blank token to the left cell.
+     */
+    public final static int BLANK_LEFT = 3;
+
+    /**
+     * Represents the number of board sizes whose solution is kept in memory.
+     */
+    private final static int MAX_CACHED_SOLUTIONS = 8;
+
+    /**
+     * Represents the solutions already read, by size, with the least recently used one first. The boards are shared
+     * by every puzzle of their size, so they must never be moved.
+     */
+    private final static Map<Integer, Board> SOLUTIONS = new LinkedHashMap<Integer, Board>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Board> eldest) {
+            return size() > MAX_CACHED_SOLUTIONS;
+        }
+    };
+
     // ----------------------------------------------------------------------------------------------------------------
     // Fields
     // ----------------------------------------------------------------------------------------------------------------
@@ -36,20 +82,60 @@ public class Puzzle {
     private int puzzleSize;
 
     /**
-     * Represents the state of the board in numeric form.
+     * Represents the state of the board. Boards up to 4x4 are packed in a single long.
      */
-    private int[][] puzzleBoard;
+    private Board puzzleBoard;
 
     /**
      * Represents the solution of the loaded puzzle.
      */
-    private int[][] puzzleSolution;
+    private Board puzzleSolution;
+
+    /**
+     * Represents the cell of every token in the solution, where the position 0 is the one of the blank token.
+     */
+    private int[] solutionPositions;
 
     /**
      * Represents the number of movements that the player has been made.
      */
     private int movements;
 
+    /**
+     * Represents the parity of the number of inversions of the board (pairs of tokens in reversed order).
+     */
+    private int inversionParity;
+
+    /**
+     * Represents the row where the blank token is placed.
+     */
+    private int blankRow;
+
+    /**
+     * Represents the parity that every board reachable from the solution shares with it.
+     */
+    private int solutionParity;
+
+    /**
+     * Represents the sum of the Manhattan distances of every token to its cell in the solution.
+     */
+    private int distanceEstimate;
+
+    /**
+     * Represents the number of cells, blank included, whose token is not the one of the solution.
+     */
+    private int misplacedTokens;
+
+    /**
+     * Represents the Zobrist hash of the board, updated on every movement.
+     */
+    private long stateHash;
+
+    /**
+     * Represents the movements made since the board was loaded, for undo and redo.
+     */
+    private MoveHistory history;
+
     // ----------------------------------------------------------------------------------------------------------------
     // Constructor
     // ----------------------------------------------------------------------------------------------------------------
@@ -59,21 +145,68 @@ public class Puzzle {
      * @param defaultGameFile - Is the path to the default game file.
      * @throws IOException - If there are problems reading the file.
      * @throws NumberFormatException - If there are problems parsing strings to numbers.
+     * @throws UnsolvablePuzzleException - If the board of the game can not reach the solution.
      */
-    public Puzzle(String defaultGameFile) throws IOException, NumberFormatException {
+    public Puzzle(String defaultGameFile) throws IOException, NumberFormatException, UnsolvablePuzzleException {
         loadGame(defaultGameFile);
     }
 
+    /**
+     * Builds a puzzle with the specified board, of any size.
+     * @param board - Is the squared matrix of tokens, where the blank is represented with {@link #BLANK_TOKEN}.
+     * @throws IOException - If there are problems reading the solution file of the size.
+     * @throws UnsolvablePuzzleException - If the board can not reach the solution.
+     */
+    public Puzzle(int[][] board) throws IOException, UnsolvablePuzzleException {
+        loadBoard(board);
+    }
+
+    /**
+     * Builds a puzzle with a saved game: its board and the number of movements made until it was saved.
+     * @param board - Is the squared matrix of tokens, where the blank is represented with {@link #BLANK_TOKEN}.
+     * @param movements - Is the number of movements made.
+     * @throws IOException - If there are problems reading the solution file of the size.
+     * @throws UnsolvablePuzzleException - If the board can not reach the solution.
+     */
+    public Puzzle(int[][] board, int movements) throws IOException, UnsolvablePuzzleException {
+        restore(board, movements);
+    }
+
     // ----------------------------------------------------------------------------------------------------------------
     // Services
     // ----------------------------------------------------------------------------------------------------------------
 
     /**
      * Gets the puzzle board of the current game.
-     * @return A integer matrix with the state of the puzzle board.
+     * @return A new integer matrix with the state of the puzzle board.
      */
     public int[][] getPuzzleBoard() {
-        return puzzleBoard;
+        return puzzleBoard.toMatrix();
+    }
+
+    /**
+     * Gets the size of the board of the current game.
+     * @return the number of rows (and columns) of the board.
+     */
+    public int getPuzzleSize() {
+        return puzzleSize;
+    }
+
+    /**
+     * Gets the cell where the blank token is placed.
+     * @return the index of the blank cell, in row-major order.
+     */
+    public int getBlankIndex() {
+        return puzzleBoard.getBlankIndex();
+    }
+
+    /**
+     * Gets the token placed in a cell of the board.
+     * @param index - Is the index of the cell, in row-major order.
+     * @return the token in the cell, or {@link #BLANK_TOKEN} if the cell is the blank one.
+     */
+    public int getToken(int index) {
+        return puzzleBoard.getToken(index);
     }
 
     /**
@@ -85,139 +218,529 @@ public class Puzzle {
     }
 
     /**
-     * Loads the game from the specified file.
+     * Checks if the current board can reach the solution of the puzzle. It takes constant time, since the parities
+     * are kept up to date on every movement.
+     * @return true if the puzzle can be solved, false otherwise.
+     */
+    public boolean isSolvable() {
+        return solvabilityParity(inversionParity, blankRow, puzzleSize) == solutionParity;
+    }
+
+    /**
+     * Gets a cheap lower bound of the movements left to solve the puzzle, kept up to date on every movement.
+     * @return the sum of the Manhattan distances of every token to its cell in the solution.
+     */
+    public int getDistanceEstimate() {
+        return distanceEstimate;
+    }
+
+    /**
+     * Loads the game from the specified file, in the properties or the binary format. If the game can not be loaded,
+     * the current one is kept.
      * @param fileName - The file where the game is configured.
      * @throws IOException - If there are problems reading the file.
      * @throws NumberFormatException - If there are problems parsing strings to integers.
+     * @throws UnsolvablePuzzleException - If the board of the game can not reach the solution.
      */
-    public void loadGame(String fileName) throws IOException, NumberFormatException {
-        movements = 0;
-        FileReader reader = new FileReader(fileName);
+    public void loadGame(String fileName) throws IOException, NumberFormatException, UnsolvablePuzzleException {
+        if (!Metrics.ENABLED) {
+            readGame(fileName);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean loaded = false;
+        try {
+            readGame(fileName);
+            loaded = true;
+        } finally {
+            Metrics.recordLoad(loaded, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Loads the game from the specified file, in the properties or the binary format, without recording metrics.
+     * @param fileName - The file where the game is configured.
+     * @throws IOException - If there are problems reading the file.
+     * @throws NumberFormatException - If there are problems parsing strings to integers.
+     * @throws UnsolvablePuzzleException - If the board of the game can not reach the solution.
+     */
+    private void readGame(String fileName) throws IOException, NumberFormatException, UnsolvablePuzzleException {
+        if (fileName.endsWith("." + GameJournal.JOURNAL_EXTENSION)) {
+            copyGame(GameJournal.replay(fileName));
+        } else {
+            loadBoard(readBoard(fileName));
+        }
+    }
+
+    /**
+     * Takes the game of another puzzle, which must not be used anymore: its board, its solution, its movements and
+     * its history.
+     * @param other - Is the puzzle whose game is taken.
+     */
+    private void copyGame(Puzzle other) {
+        puzzleSize = other.puzzleSize;
+        puzzleBoard = other.puzzleBoard;
+        puzzleSolution = other.puzzleSolution;
+        solutionPositions = other.solutionPositions;
+        movements = other.movements;
+        inversionParity = other.inversionParity;
+        blankRow = other.blankRow;
+        solutionParity = other.solutionParity;
+        distanceEstimate = other.distanceEstimate;
+        misplacedTokens = other.misplacedTokens;
+        stateHash = other.stateHash;
+        history = other.history;
+    }
 
-        Properties properties = new Properties();
-        properties.load(reader);
+    /**
+     * Restores a saved game: its board and the number of movements made until it was saved.
+     * @param matrix - Is the squared matrix of tokens, where the blank is represented with {@link #BLANK_TOKEN}.
+     * @param movements - Is the number of movements made.
+     * @throws IOException - If there are problems reading the solution file of the size.
+     * @throws UnsolvablePuzzleException - If the board can not reach the solution.
+     */
+    public void restore(int[][] matrix, int movements) throws IOException, UnsolvablePuzzleException {
+        loadBoard(matrix);
+        this.movements = movements;
+    }
+
+    /**
+     * Loads a game with the specified board. If the board can not be loaded, the current one is kept.
+     * @param matrix - Is the squared matrix of tokens, where the blank is represented with {@link #BLANK_TOKEN}.
+     * @throws IOException - If there are problems reading the solution file of the size.
+     * @throws UnsolvablePuzzleException - If the board can not reach the solution.
+     */
+    public void loadBoard(int[][] matrix) throws IOException, UnsolvablePuzzleException {
+        Board board = Board.of(matrix);
+        Board solution = loadSolution(board.getSize());
+
+        int size = board.getSize();
+        int boardParity = solvabilityParity(permutationParity(board), board.getBlankIndex() / size, size);
+        int goalParity = solvabilityParity(permutationParity(solution), solution.getBlankIndex() / size, size);
+        if (boardParity != goalParity) {
+            throw new UnsolvablePuzzleException("The " + size + "x" + size + " puzzle can never be solved");
+        }
 
-        puzzleSize = Integer.parseInt(properties.getProperty("puzzleSize"));
-        puzzleBoard = new int[puzzleSize][puzzleSize];
-        for (int i = 0; i < puzzleBoard.length; i++) {
-            for (int j = 0; j < puzzleBoard[0].length; j++) {
-                puzzleBoard[i][j] = Integer.parseInt(properties.getProperty("puzzle" + i + "-" + j));
+        puzzleSize = size;
+        puzzleBoard = board;
+        puzzleSolution = solution;
+        movements = 0;
+        history = new MoveHistory();
+        inversionParity = permutationParity(board);
+        blankRow = board.getBlankIndex() / puzzleSize;
+        solutionParity = goalParity;
+        solutionPositions = new int[puzzleSize * puzzleSize];
+        distanceEstimate = 0;
+        misplacedTokens = 0;
+        stateHash = Zobrist.hash(board);
+        for (int index = 0; index < solutionPositions.length; index++) {
+            int token = solution.getToken(index);
+            solutionPositions[token == BLANK_TOKEN ? 0 : token] = index;
+        }
+        for (int index = 0; index < solutionPositions.length; index++) {
+            int token = board.getToken(index);
+            if (token != BLANK_TOKEN) {
+                distanceEstimate += distance(index, solutionPositions[token]);
+            }
+            if (token != solution.getToken(index)) {
+                misplacedTokens++;
             }
         }
-        loadSolution();
     }
 
     /**
-     * Loads the properly solution of the loaded and scrambled puzzle.
-     * @throws IOException - If there are problems loading the puzzle solution.
+     * Reads a board from a game or solution file, in the binary format or in the properties format depending on the
+     * extension of the file.
+     * @param fileName - The file where the board is configured.
+     * @return the matrix of tokens of the board.
+     * @throws IOException - If there are problems reading the file.
+     * @throws NumberFormatException - If there are problems parsing strings to integers.
      */
-    private void loadSolution() throws IOException {
-        String solutionPath = "";
-        if (puzzleSize == PUZZLE_SMALL_SIZE) {
-            solutionPath = "./solutions/3x3.solution";
-        } else if (puzzleSize == PUZZLE_MEDIUM_SIZE) {
-            solutionPath = "./solutions/4x4.solution";
+    static int[][] readBoard(String fileName) throws IOException, NumberFormatException {
+        if (fileName.endsWith("." + BinaryPuzzleFormat.GAME_EXTENSION)
+                || fileName.endsWith("." + BinaryPuzzleFormat.SOLUTION_EXTENSION)) {
+            return BinaryPuzzleFormat.read(fileName);
         }
-        FileReader reader = new FileReader(solutionPath);
-
-        Properties properties = new Properties();
-        properties.load(reader);
+        return PropertiesPuzzleFormat.read(fileName);
+    }
 
-        int solutionSize = Integer.parseInt(properties.getProperty("puzzleSize"));
-        puzzleSolution = new int[solutionSize][solutionSize];
-        for (int i = 0; i < puzzleSolution.length; i++) {
-            for (int j = 0; j < puzzleSolution[0].length; j++) {
-                puzzleSolution[i][j] = Integer.parseInt(properties.getProperty("puzzle" + i + "-" + j));
+    /**
+     * Loads the properly solution of a puzzle of the specified size. The binary solution file is preferred over the
+     * properties one, and if there is no solution file for the size, the ordered solution is generated. The solution
+     * is only read the first time; then it is kept in memory until {@link #forgetSolutions()} is called.
+     * @param size - Is the size of the loaded and scrambled puzzle.
+     * @return the solution board.
+     * @throws IOException - If there are problems loading the puzzle solution.
+     */
+    private static Board loadSolution(int size) throws IOException {
+        synchronized (SOLUTIONS) {
+            Board solution = SOLUTIONS.get(size);
+            if (solution != null) {
+                return solution;
             }
         }
+        Board solution = readSolution(size);
+        synchronized (SOLUTIONS) {
+            SOLUTIONS.put(size, solution);
+        }
+        return solution;
     }
 
-    public void doMove(int selectedNumber) {
-        TokenCoordinates tokenCoordinates = findToken(selectedNumber);
-        if (isBlankNeighbour(tokenCoordinates)) {
-            TokenCoordinates blankTokenCoordinates = findToken(BLANK_TOKEN);
-            swapTokens(tokenCoordinates, blankTokenCoordinates);
-            movements ++;
+    /**
+     * Forgets the solutions kept in memory, so they are read again from the solution folder, for example because a
+     * solution file changed.
+     */
+    public static void forgetSolutions() {
+        synchronized (SOLUTIONS) {
+            SOLUTIONS.clear();
         }
+    }
 
+    /**
+     * Reads the solution of a puzzle of the specified size from the solution folder, or generates the ordered one.
+     * @param size - Is the size of the loaded and scrambled puzzle.
+     * @return the solution board.
+     * @throws IOException - If there are problems loading the puzzle solution.
+     */
+    private static Board readSolution(int size) throws IOException {
+        String solutionName = size + "x" + size + ".";
+        File solutionFile = new File(SOLUTION_FOLDER_PATH, solutionName + BinaryPuzzleFormat.SOLUTION_EXTENSION);
+        if (!solutionFile.exists()) {
+            solutionFile = new File(SOLUTION_FOLDER_PATH, solutionName + PropertiesPuzzleFormat.SOLUTION_EXTENSION);
+        }
+        if (!solutionFile.exists()) {
+            return Board.of(Board.orderedMatrix(size));
+        }
+        Board solution = Board.of(readBoard(solutionFile.getPath()));
+        if (solution.getSize() != size) {
+            throw new IOException("The solution file " + solutionFile + " is not of size " + size);
+        }
+        return solution;
     }
 
-    private TokenCoordinates findToken(int tokenValue) {
-        TokenCoordinates tokenCoordinates = null;
-        boolean tokenFound = false;
-        for (int i = 0; i < puzzleBoard.length && !tokenFound; i++) {
-            for (int j = 0; j < puzzleBoard[0].length && !tokenFound; j++) {
-                int currentToken = puzzleBoard[i][j];
-                if (currentToken == tokenValue) {
-                    tokenFound = true;
-                    tokenCoordinates = new TokenCoordinates(i, j);
-                }
+    /**
+     * Computes the parity of the inversions of a board (pairs of tokens in reversed order, ignoring the blank token).
+     * It is the parity of the permutation of the tokens, found by counting its cycles in linear time.
+     * @param board - Is the board to check.
+     * @return 0 if the number of inversions is even, 1 if it is odd.
+     */
+    private static int permutationParity(Board board) {
+        int cellCount = board.getSize() * board.getSize();
+        int[] tokens = new int[cellCount - 1];
+        for (int index = 0, next = 0; index < cellCount; index++) {
+            int token = board.getToken(index);
+            if (token != BLANK_TOKEN) {
+                tokens[next++] = token - 1;
+            }
+        }
+        int parity = 0;
+        boolean[] visited = new boolean[tokens.length];
+        for (int start = 0; start < tokens.length; start++) {
+            int cycleLength = 0;
+            for (int i = start; !visited[i]; i = tokens[i]) {
+                visited[i] = true;
+                cycleLength++;
+            }
+            if (cycleLength > 0) {
+                parity ^= (cycleLength - 1) & 1;
             }
         }
-        return tokenCoordinates;
+        return parity;
     }
 
-    private boolean isBlankNeighbour(TokenCoordinates coordinates) {
-        boolean isBlankNeighbour = false;
-        int i = coordinates.getRow();
-        int j = coordinates.getColumn();
+    /**
+     * Combines the parities that no movement can change. A horizontal movement keeps both the inversions and the row
+     * of the blank token. A vertical one jumps a token over (size - 1) tokens, which changes the parity of the
+     * inversions only when the size is even, and then the row of the blank token changes its parity too.
+     * @param inversionParity - Is the parity of the inversions of the board.
+     * @param blankRow - Is the row where the blank token is placed.
+     * @param size - Is the size of the board.
+     * @return the parity shared by every board reachable from the given one.
+     */
+    private static int solvabilityParity(int inversionParity, int blankRow, int size) {
+        return size % 2 == 1 ? inversionParity : (inversionParity + blankRow) % 2;
+    }
 
-        if (isNextRowInTheBoard(i)) {
-            if (puzzleBoard[i + 1][j] == BLANK_TOKEN) {
-                isBlankNeighbour = true;
-            }
+    /**
+     * Computes the Manhattan distance between two cells of the board.
+     * @param from - Is the index of the first cell.
+     * @param to - Is the index of the second cell.
+     * @return the number of rows plus the number of columns between both cells.
+     */
+    private int distance(int from, int to) {
+        return Math.abs(from / puzzleSize - to / puzzleSize) + Math.abs(from % puzzleSize - to % puzzleSize);
+    }
+
+    /**
+     * Moves the selected token to the blank cell if they are neighbours. Otherwise, the board is left untouched.
+     * It takes constant time.
+     * @param selectedNumber - Is the value of the token in the board to move.
+     * @return true if the token was moved, false if the movement is not valid.
+     */
+    public boolean doMove(int selectedNumber) {
+        if (!Metrics.ENABLED) {
+            return moveToken(selectedNumber);
         }
-        if (isPreviousRowInTheBoard(i)) {
-            if (puzzleBoard[i - 1][j] == BLANK_TOKEN) {
-                isBlankNeighbour = true;
-            }
+        long start = System.nanoTime();
+        boolean moved = moveToken(selectedNumber);
+        Metrics.recordMove(moved, System.nanoTime() - start);
+        return moved;
+    }
+
+    /**
+     * Moves the selected token to the blank cell if they are neighbours, without recording metrics.
+     * @param selectedNumber - Is the value of the token in the board to move.
+     * @return true if the token was moved, false if the movement is not valid.
+     */
+    private boolean moveToken(int selectedNumber) {
+        int tokenIndex = findToken(selectedNumber);
+        if (tokenIndex == -1 || !puzzleBoard.isBlankNeighbour(tokenIndex)) {
+            return false;
         }
-        if (isNextColumnInTheBoard(j)) {
-            if (puzzleBoard[i][j + 1] == BLANK_TOKEN) {
-                isBlankNeighbour = true;
-            }
+        history.record(directionOf(puzzleBoard.getBlankIndex(), tokenIndex, puzzleSize));
+        swapTokens(tokenIndex);
+        movements ++;
+        return true;
+    }
+
+    /**
+     * Moves the blank token to a neighbour cell, which is the same as moving the token of that cell.
+     * @param direction - Is the direction of the blank token: {@link #BLANK_UP}, {@link #BLANK_RIGHT},
+     *                  {@link #BLANK_DOWN} or {@link #BLANK_LEFT}.
+     * @return true if the blank token was moved, false if there is no cell in that direction.
+     */
+    public boolean moveBlank(int direction) {
+        int tokenIndex = neighbourOfBlank(direction);
+        if (tokenIndex == -1) {
+            return false;
         }
-        if (isPreviousColumnInTheBoard(j)) {
-            if (puzzleBoard[i][j - 1] == BLANK_TOKEN) {
-                isBlankNeighbour = true;
-            }
+        swapTokens(tokenIndex);
+        history.record(direction);
+        movements ++;
+        return true;
+    }
+
+    /**
+     * Undoes the last movement. The blank token goes back in constant time, and the movements counter goes down.
+     * @return true if a movement was undone, false if there is no movement to undo.
+     */
+    public boolean undo() {
+        if (!history.canUndo()) {
+            return false;
         }
-        return isBlankNeighbour;
+        swapTokens(neighbourOfBlank(history.undo()));
+        movements --;
+        return true;
     }
 
-    private boolean isNextRowInTheBoard(int row) {
-        return row + 1 <= puzzleBoard.length - 1;
+    /**
+     * Redoes the last movement undone. The movements counter goes up again.
+     * @return true if a movement was redone, false if there is no movement to redo.
+     */
+    public boolean redo() {
+        if (!history.canRedo()) {
+            return false;
+        }
+        swapTokens(neighbourOfBlank(history.redo()));
+        movements ++;
+        return true;
     }
 
-    private boolean isPreviousRowInTheBoard(int row) {
-        return row - 1 >= 0;
+    /**
+     * Checks if there is a movement to undo.
+     * @return true if at least one movement has been made since the board was loaded.
+     */
+    public boolean canUndo() {
+        return history.canUndo();
     }
 
-    private boolean isNextColumnInTheBoard(int column) {
-        return column + 1 <= puzzleBoard.length - 1;
+    /**
+     * Checks if there is a movement to redo.
+     * @return true if at least one movement has been undone since the last new movement.
+     */
+    public boolean canRedo() {
+        return history.canRedo();
     }
 
-    private boolean isPreviousColumnInTheBoard(int column) {
-        return column - 1 >= 0;
+    /**
+     * Undoes a movement that may be older than the history, like the ones made before a saved game was restored.
+     * If the last movement of the history is undone in the specified direction, it is undone as usual; otherwise, the
+     * blank token moves in that direction and the movements counter goes down, leaving the history untouched.
+     * @param direction - Is the direction of the blank token that reverses the movement.
+     * @return true if the movement was undone, false if there is no cell in that direction.
+     */
+    public boolean undo(int direction) {
+        if (history.peekUndo() == direction) {
+            return undo();
+        }
+        int tokenIndex = neighbourOfBlank(direction);
+        if (tokenIndex == -1) {
+            return false;
+        }
+        swapTokens(tokenIndex);
+        movements --;
+        return true;
+    }
+
+    /**
+     * Redoes a movement that may be older than the history. If the next movement to redo goes in the specified
+     * direction, it is redone as usual; otherwise, the blank token moves in that direction as a new movement.
+     * @param direction - Is the direction of the blank token in the movement.
+     * @return true if the movement was redone, false if there is no cell in that direction.
+     */
+    public boolean redo(int direction) {
+        return history.peekRedo() == direction ? redo() : moveBlank(direction);
+    }
+
+    /**
+     * Finds the cell next to the blank token in a direction.
+     * @param direction - Is the direction from the blank token.
+     * @return the index of the cell, or -1 if the blank token is on the border of the board in that direction.
+     */
+    private int neighbourOfBlank(int direction) {
+        int blankIndex = puzzleBoard.getBlankIndex();
+        int row = blankIndex / puzzleSize;
+        int column = blankIndex % puzzleSize;
+        if (direction == BLANK_UP && row > 0) {
+            return blankIndex - puzzleSize;
+        } else if (direction == BLANK_RIGHT && column < puzzleSize - 1) {
+            return blankIndex + 1;
+        } else if (direction == BLANK_DOWN && row < puzzleSize - 1) {
+            return blankIndex + puzzleSize;
+        } else if (direction == BLANK_LEFT && column > 0) {
+            return blankIndex - 1;
+        }
+        return -1;
     }
 
-    private void swapTokens(TokenCoordinates labeledToken, TokenCoordinates blankToken) {
-        int temp = puzzleBoard[labeledToken.getRow()][labeledToken.getColumn()];
-        puzzleBoard[labeledToken.getRow()][labeledToken.getColumn()] =
-                puzzleBoard[blankToken.getRow()][blankToken.getColumn()];
-        puzzleBoard[blankToken.getRow()][blankToken.getColumn()] = temp;
+    /**
+     * Gets the direction of the blank token in a movement between two neighbour cells.
+     * @param fromIndex - Is the cell of the blank token before the movement.
+     * @param toIndex - Is the cell of the blank token after the movement.
+     * @param size - Is the size of the board.
+     * @return the direction of the blank token, {@link #BLANK_UP}, {@link #BLANK_RIGHT}, {@link #BLANK_DOWN} or
+     * {@link #BLANK_LEFT}.
+     * @throws IllegalArgumentException - If the cells are not neighbours.
+     */
+    public static int directionOf(int fromIndex, int toIndex, int size) throws IllegalArgumentException {
+        int delta = toIndex - fromIndex;
+        if (delta == -size) {
+            return BLANK_UP;
+        } else if (delta == size) {
+            return BLANK_DOWN;
+        } else if (delta == 1 && toIndex % size != 0) {
+            return BLANK_RIGHT;
+        } else if (delta == -1 && fromIndex % size != 0) {
+            return BLANK_LEFT;
+        }
+        throw new IllegalArgumentException("The cells " + fromIndex + " and " + toIndex + " are not neighbours");
     }
 
+    /**
+     * Checks if the selected token is next to the blank token, so it can be moved. It takes constant time.
+     * @param selectedNumber - Is the value of the token in the board to check.
+     * @return true if the token is a neighbour of the blank token, false otherwise.
+     */
+    public boolean isBlankNeighbour(int selectedNumber) {
+        int tokenIndex = findToken(selectedNumber);
+        boolean neighbour = tokenIndex != -1 && puzzleBoard.isBlankNeighbour(tokenIndex);
+        if (Metrics.ENABLED) {
+            Metrics.recordNeighbourCheck(neighbour);
+        }
+        return neighbour;
+    }
+
+    /**
+     * Finds the cell of the board where the specified token is placed, through the position index of the board.
+     * @param tokenValue - Is the value of the token to find.
+     * @return the index of the cell in row-major order, or -1 if the token is not in the board.
+     */
+    private int findToken(int tokenValue) {
+        return puzzleBoard.indexOf(tokenValue);
+    }
+
+    /**
+     * Swaps the token placed in the specified cell with the blank token.
+     * @param tokenIndex - Is the index of the cell of the token to swap.
+     */
+    private void swapTokens(int tokenIndex) {
+        int blankIndex = puzzleBoard.getBlankIndex();
+        int token = puzzleBoard.getToken(tokenIndex);
+        puzzleBoard.moveToken(tokenIndex);
+
+        int tokenRow = tokenIndex / puzzleSize;
+        if (tokenRow != blankRow) {
+            // The token jumps over (size - 1) tokens, each one adding or removing an inversion.
+            inversionParity ^= (puzzleSize - 1) & 1;
+            blankRow = tokenRow;
+        }
+        int goalIndex = solutionPositions[token];
+        distanceEstimate += distance(blankIndex, goalIndex) - distance(tokenIndex, goalIndex);
+
+        // Only the two swapped cells can change from misplaced to placed or the other way around.
+        int blankGoalIndex = solutionPositions[0];
+        misplacedTokens += (tokenIndex == goalIndex ? 1 : 0) - (blankIndex == goalIndex ? 1 : 0)
+                + (blankIndex == blankGoalIndex ? 1 : 0) - (tokenIndex == blankGoalIndex ? 1 : 0);
+
+        long[] keys = Zobrist.keys(puzzleSize);
+        int cellCount = solutionPositions.length;
+        stateHash ^= keys[tokenIndex * cellCount + token] ^ keys[blankIndex * cellCount + token]
+                ^ keys[blankIndex * cellCount] ^ keys[tokenIndex * cellCount];
+    }
+
+    /**
+     * Checks if the current state of the board is the solution of the puzzle. It takes constant time, since the
+     * misplaced tokens are counted on every movement.
+     * @return true if the puzzle is solved, false otherwise.
+     */
     public boolean puzzleSolved() {
-        boolean solved = true;
-        for (int i = 0; i < puzzleBoard.length && solved; i++) {
-            for (int j = 0; j < puzzleBoard[0].length && solved; j++) {
-                if (puzzleBoard[i][j] != puzzleSolution[i][j]) {
-                    solved = false;
-                }
-            }
+        if (Metrics.ENABLED) {
+            Metrics.recordSolvedCheck();
         }
-        return solved;
+        return misplacedTokens == 0;
+    }
+
+    /**
+     * Gets the Zobrist hash of the current board. It takes constant time, since it is updated on every movement.
+     * @return the 64 bits hash of the board.
+     */
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Takes an immutable snapshot of the current board, that can be used as a key of hash maps and sets.
+     * @return the state of the board, which does not change when the puzzle moves.
+     */
+    public PuzzleState getState() {
+        return new PuzzleState(puzzleBoard.copy(), stateHash);
+    }
+
+    /**
+     * Checks if another puzzle has the same board. The movements made are not compared. Since the board changes on
+     * every movement, a puzzle must not be changed while it is a key of a hash map; use {@link #getState()} instead.
+     * @param other - Is the object to compare.
+     * @return true if the other object is a puzzle with the same board.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Puzzle)) {
+            return false;
+        }
+        Puzzle puzzle = (Puzzle) other;
+        return stateHash == puzzle.stateHash && puzzleBoard.equals(puzzle.puzzleBoard);
+    }
+
+    /**
+     * Gets the hash code of the current board, from its Zobrist hash.
+     * @return the hash code of the board.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(stateHash);
     }
 
 }
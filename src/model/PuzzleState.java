@@ -0,0 +1,99 @@
+package model;
+
+/**
+ * An immutable snapshot of the board of a puzzle, that can be used as a key of hash maps and sets. Boards up to 4x4
+ * are copied as a single long, so taking a snapshot costs a small object. The hash code comes from the Zobrist hash
+ * that the puzzle keeps up to date on every movement, so it is never computed from the cells.
+ */
+public final class PuzzleState {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the copy of the board. It is never moved.
+     */
+    private final Board board;
+
+    /**
+     * Represents the Zobrist hash of the board.
+     */
+    private final long hash;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a snapshot of a board.
+     * @param board - Is the copy of the board. It must not be modified after the snapshot is built.
+     * @param hash - Is the Zobrist hash of the board.
+     */
+    PuzzleState(Board board, long hash) {
+        this.board = board;
+        this.hash = hash;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the size of the board.
+     * @return the number of rows (and columns) of the board.
+     */
+    public int getSize() {
+        return board.getSize();
+    }
+
+    /**
+     * Gets the Zobrist hash of the board.
+     * @return the 64 bits hash of the board.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the index of the cell where the blank token is placed.
+     * @return the index of the blank token, in row-major order.
+     */
+    public int getBlankIndex() {
+        return board.getBlankIndex();
+    }
+
+    /**
+     * Gets the token placed in the specified cell.
+     * @param index - Is the index of the cell, in row-major order.
+     * @return the token in the cell, or {@link Puzzle#BLANK_TOKEN} if the cell is the blank one.
+     */
+    public int getToken(int index) {
+        return board.getToken(index);
+    }
+
+    /**
+     * Converts the snapshot to its matrix representation.
+     * @return a new squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     */
+    public int[][] toMatrix() {
+        return board.toMatrix();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PuzzleState)) {
+            return false;
+        }
+        PuzzleState state = (PuzzleState) other;
+        return hash == state.hash && board.equals(state.board);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+}
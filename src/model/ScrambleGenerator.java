@@ -0,0 +1,331 @@
+package model;
+
+import model.io.BinaryPuzzleFormat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Generates random boards of any size, solvable towards the ordered solution (the tokens in row-major order and the
+ * blank token in the last cell). A shuffled board is uniformly distributed among the solvable ones, and a walked board
+ * is the solution after a number of random movements of the blank token. The boards are written in flat arrays of
+ * cells given by the caller, so generating them does not allocate.
+ * <p>
+ * A generator is not thread safe; {@link #split()} gives an independent generator for another thread, and
+ * {@link #generate} spreads a bulk generation over the common fork join pool.
+ */
+public class ScrambleGenerator {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents that the bulk generation shuffles the boards instead of walking from the solution.
+     */
+    public final static int SHUFFLE = -1;
+
+    /**
+     * Represents the number of boards generated by a task of the bulk generation.
+     */
+    private final static int CHUNK_SIZE = 4096;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the source of random numbers.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Represents the scratch permutation used to compute the parity of a board. It grows with the board size.
+     */
+    private int[] permutation;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a generator with a random seed.
+     */
+    public ScrambleGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Builds a generator with a fixed seed, which always generates the same boards.
+     * @param seed - Is the seed of the random numbers.
+     */
+    public ScrambleGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Builds a generator over a source of random numbers.
+     * @param random - Is the source of random numbers.
+     */
+    private ScrambleGenerator(SplittableRandom random) {
+        this.random = random;
+        this.permutation = new int[0];
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a new generator whose random numbers are independent from the ones of this generator.
+     * @return a generator for another thread.
+     */
+    public ScrambleGenerator split() {
+        return new ScrambleGenerator(random.split());
+    }
+
+    /**
+     * Fills a board with a uniformly random solvable permutation. The tokens are shuffled with Fisher-Yates; half of
+     * the permutations can not be solved, and those get their first two tokens swapped, which changes the parity.
+     * Since the swap pairs every unsolvable board with a single solvable one, the result stays uniform.
+     * @param size - Is the size of the board.
+     * @param cells - Is the array where the token of every cell is written in row-major order, where 0 is the blank
+     *              token. It must have size * size positions.
+     */
+    public void shuffle(int size, int[] cells) {
+        int cellCount = size * size;
+        for (int cell = 0; cell < cellCount; cell++) {
+            cells[cell] = cell;
+        }
+        for (int cell = cellCount - 1; cell > 0; cell--) {
+            int other = random.nextInt(cell + 1);
+            int token = cells[cell];
+            cells[cell] = cells[other];
+            cells[other] = token;
+        }
+        if (!isSolvable(size, cells)) {
+            int first = cells[0] == 0 ? 1 : 0;
+            int second = cells[first + 1] == 0 ? first + 2 : first + 1;
+            int token = cells[first];
+            cells[first] = cells[second];
+            cells[second] = token;
+        }
+    }
+
+    /**
+     * Fills a board with the solution after a number of random movements of the blank token. A movement never
+     * undoes the previous one, so the distance to the solution grows quickly with the depth.
+     * @param size - Is the size of the board.
+     * @param depth - Is the number of movements.
+     * @param cells - Is the array where the token of every cell is written in row-major order, where 0 is the blank
+     *              token. It must have size * size positions.
+     */
+    public void randomWalk(int size, int depth, int[] cells) {
+        int cellCount = size * size;
+        for (int cell = 0; cell < cellCount - 1; cell++) {
+            cells[cell] = cell + 1;
+        }
+        cells[cellCount - 1] = 0;
+        int blank = cellCount - 1;
+        int previousBlank = -1;
+        for (int step = 0; step < depth; step++) {
+            int next;
+            do {
+                int direction = random.nextInt(4);
+                int row = blank / size;
+                int column = blank % size;
+                if (direction == Puzzle.BLANK_UP) {
+                    next = row > 0 ? blank - size : -1;
+                } else if (direction == Puzzle.BLANK_RIGHT) {
+                    next = column < size - 1 ? blank + 1 : -1;
+                } else if (direction == Puzzle.BLANK_DOWN) {
+                    next = row < size - 1 ? blank + size : -1;
+                } else {
+                    next = column > 0 ? blank - 1 : -1;
+                }
+            } while (next == -1 || next == previousBlank);
+            cells[blank] = cells[next];
+            cells[next] = 0;
+            previousBlank = blank;
+            blank = next;
+        }
+    }
+
+    /**
+     * Builds a uniformly random solvable board.
+     * @param size - Is the size of the board.
+     * @return a new squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     */
+    public int[][] randomBoard(int size) {
+        int[] cells = new int[size * size];
+        shuffle(size, cells);
+        return toMatrix(size, cells);
+    }
+
+    /**
+     * Builds a board that is the solution after a number of random movements of the blank token.
+     * @param size - Is the size of the board.
+     * @param depth - Is the number of movements.
+     * @return a new squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     */
+    public int[][] randomWalkBoard(int size, int depth) {
+        int[] cells = new int[size * size];
+        randomWalk(size, depth, cells);
+        return toMatrix(size, cells);
+    }
+
+    /**
+     * Checks if a board can reach the ordered solution: the parity of its permutation, counting the blank token as
+     * the last one, must be the parity of the distance from the blank cell to the last cell.
+     * @param size - Is the size of the board.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+     * @return true if the board is solvable.
+     */
+    public boolean isSolvable(int size, int[] cells) {
+        int cellCount = size * size;
+        if (permutation.length < cellCount) {
+            permutation = new int[cellCount];
+        }
+        int blank = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            int token = cells[cell];
+            permutation[cell] = token == 0 ? cellCount - 1 : token - 1;
+            if (token == 0) {
+                blank = cell;
+            }
+        }
+        // Sorting the permutation in place with swaps takes as many swaps as its parity needs.
+        int swaps = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            while (permutation[cell] != cell) {
+                int target = permutation[cell];
+                permutation[cell] = permutation[target];
+                permutation[target] = target;
+                swaps++;
+            }
+        }
+        int blankDistance = (size - 1 - blank / size) + (size - 1 - blank % size);
+        return ((swaps ^ blankDistance) & 1) == 0;
+    }
+
+    /**
+     * Generates boards in parallel over the common fork join pool. The boards are split in chunks, and every chunk
+     * gets its own generator and its own sink, so the threads never share state. The generators are split from the
+     * seed in order, so the chunks are the same in every run, although they may be handed to the sinks in any order.
+     * @param size - Is the size of the boards.
+     * @param depth - Is the number of random movements from the solution, or {@link #SHUFFLE} for uniformly random
+     *              boards.
+     * @param count - Is the number of boards.
+     * @param seed - Is the seed of the random numbers.
+     * @param sinks - Gives the sink of every chunk.
+     */
+    public static void generate(int size, int depth, long count, long seed, Supplier<BoardSink> sinks) {
+        int chunkCount = (int) ((count + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        ScrambleGenerator root = new ScrambleGenerator(seed);
+        ScrambleGenerator[] generators = new ScrambleGenerator[chunkCount];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            generators[chunk] = root.split();
+        }
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            ScrambleGenerator generator = generators[chunk];
+            BoardSink sink = sinks.get();
+            int[] cells = new int[size * size];
+            long boards = Math.min(CHUNK_SIZE, count - (long) chunk * CHUNK_SIZE);
+            for (long board = 0; board < boards; board++) {
+                if (depth == SHUFFLE) {
+                    generator.shuffle(size, cells);
+                } else {
+                    generator.randomWalk(size, depth, cells);
+                }
+                sink.accept(cells);
+            }
+            sink.finish();
+        });
+    }
+
+    /**
+     * Converts a flat array of cells to its matrix representation.
+     * @param size - Is the size of the board.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+     * @return a new squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     */
+    private static int[][] toMatrix(int size, int[] cells) {
+        int[][] board = new int[size][size];
+        for (int cell = 0; cell < cells.length; cell++) {
+            board[cell / size][cell % size] = cells[cell] == 0 ? Puzzle.BLANK_TOKEN : cells[cell];
+        }
+        return board;
+    }
+
+    /**
+     * Entry point of the bulk generation. The boards are written as a binary corpus, which the batch solver reads.
+     * @param args - CLI arguments: the size, the number of boards, the corpus file and, optionally, the number of
+     *             random movements (by default the boards are uniformly random) and the seed.
+     * @throws IOException - If there are problems writing the corpus.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: ScrambleGenerator <size> <count> <corpus file> [depth] [seed]");
+            return;
+        }
+        int size = Integer.parseInt(args[0]);
+        long count = Long.parseLong(args[1]);
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : SHUFFLE;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        int boardLength = BinaryPuzzleFormat.encodedLength(size);
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(args[2]), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            generate(size, depth, count, seed, () -> new BoardSink() {
+                private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE * boardLength);
+
+                @Override
+                public void accept(int[] cells) {
+                    BinaryPuzzleFormat.encode(size, cells, buffer);
+                }
+
+                @Override
+                public void finish() {
+                    buffer.flip();
+                    synchronized (channel) {
+                        try {
+                            while (buffer.hasRemaining()) {
+                                channel.write(buffer);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d boards of %dx%d in %.2f s (%.0f boards/s)%n", count, size, size, seconds,
+                count / seconds);
+    }
+
+    /**
+     * Receives the boards of a chunk of a bulk generation.
+     */
+    public interface BoardSink {
+
+        /**
+         * Receives a board. The array is reused for the next board of the chunk, so it must be copied to be kept.
+         * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+         */
+        void accept(int[] cells);
+
+        /**
+         * Receives the end of the chunk. By default nothing is done.
+         */
+        default void finish() {
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package model;
+
+/**
+ * Thrown when a loaded board can never reach the solution of the puzzle, whatever the movements made.
+ */
+public class UnsolvablePuzzleException extends IllegalArgumentException {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the version of the serialized form of the exception.
+     */
+    private final static long serialVersionUID = 1L;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds the exception with a message that describes the unsolvable board.
+     * @param message - Is the detail message.
+     */
+    public UnsolvablePuzzleException(String message) {
+        super(message);
+    }
+}
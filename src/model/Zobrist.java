@@ -0,0 +1,100 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zobrist keys of the puzzle boards. Every pair of cell and token has a random 64 bits key, and the hash of a board is
+ * the xor of the keys of its cells, so a movement updates it in constant time by xor-ing the four keys of the two
+ * swapped cells. The keys are generated from a fixed seed, so the hash of a board is the same in every run.
+ */
+public final class Zobrist {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the seed of the keys of every size.
+     */
+    private final static long SEED = 0x5A0B215FL;
+
+    /**
+     * Represents the keys already generated, by board size.
+     */
+    private final static ConcurrentHashMap<Integer, long[]> KEYS = new ConcurrentHashMap<>();
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private Zobrist() {
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the keys of a board size. The key of a token in a cell is at the position cell * size * size + token,
+     * where the blank token is 0. The returned array is shared and must not be modified.
+     * @param size - Is the size of the board.
+     * @return the keys of every pair of cell and token.
+     */
+    public static long[] keys(int size) {
+        long[] keys = KEYS.get(size);
+        if (keys == null) {
+            keys = KEYS.computeIfAbsent(size, Zobrist::generate);
+        }
+        return keys;
+    }
+
+    /**
+     * Computes the hash of a board from scratch.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+     * @param size - Is the size of the board.
+     * @return the xor of the keys of every cell.
+     */
+    public static long hash(int[] cells, int size) {
+        long[] keys = keys(size);
+        long hash = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            hash ^= keys[cell * cells.length + cells[cell]];
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the hash of a board from scratch.
+     * @param board - Is the board to hash.
+     * @return the xor of the keys of every cell.
+     */
+    public static long hash(Board board) {
+        int cellCount = board.getSize() * board.getSize();
+        long[] keys = keys(board.getSize());
+        long hash = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            int token = board.getToken(cell);
+            hash ^= keys[cell * cellCount + (token == Puzzle.BLANK_TOKEN ? 0 : token)];
+        }
+        return hash;
+    }
+
+    /**
+     * Generates the keys of a board size with a SplitMix64 sequence.
+     * @param size - Is the size of the board.
+     * @return the keys of every pair of cell and token.
+     */
+    private static long[] generate(int size) {
+        int cellCount = size * size;
+        long[] keys = new long[cellCount * cellCount];
+        long state = SEED * 0x9E3779B97F4A7C15L + size;
+        for (int i = 0; i < keys.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            long key = state;
+            key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+            key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+            keys[i] = key ^ (key >>> 31);
+        }
+        return keys;
+    }
+}
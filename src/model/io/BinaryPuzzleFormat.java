@@ -0,0 +1,222 @@
+package model.io;
+
+import model.Puzzle;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The compact binary format of the game and solution files. A board is a 5 bytes header (the magic number and the
+ * size) followed by its tokens in row-major order, where the blank token is 0. Boards up to 4x4 use one nibble per
+ * token, the low nibble first; bigger boards, up to 16x16, use one unsigned byte per token.
+ */
+public final class BinaryPuzzleFormat {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the extension of the binary game files.
+     */
+    public final static String GAME_EXTENSION = "pzb";
+
+    /**
+     * Represents the extension of the binary solution files.
+     */
+    public final static String SOLUTION_EXTENSION = "pzs";
+
+    /**
+     * Represents the first bytes of every binary board.
+     */
+    public final static int MAGIC = 0x505A4231;
+
+    /**
+     * Represents the length of the header of a board.
+     */
+    public final static int HEADER_LENGTH = 5;
+
+    /**
+     * Represents the biggest board size supported by the format.
+     */
+    public final static int MAX_SIZE = 16;
+
+    /**
+     * Represents the biggest board size whose tokens are packed in nibbles.
+     */
+    private final static int NIBBLE_MAX_SIZE = 4;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private BinaryPuzzleFormat() {
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Computes the number of bytes of an encoded board, header included.
+     * @param size - Is the size of the board.
+     * @return the length of the encoded board.
+     */
+    public static int encodedLength(int size) {
+        int cellCount = size * size;
+        return HEADER_LENGTH + (size <= NIBBLE_MAX_SIZE ? (cellCount + 1) / 2 : cellCount);
+    }
+
+    /**
+     * Reads a board from a binary file through a file channel.
+     * @param fileName - The file where the board is saved.
+     * @return the matrix of tokens of the board.
+     * @throws IOException - If there are problems reading the file or it is not a binary board.
+     */
+    public static int[][] read(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_LENGTH || length > encodedLength(MAX_SIZE)) {
+                throw new IOException("The file " + fileName + " is not a binary puzzle");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) {
+                    throw new EOFException("The file " + fileName + " is truncated");
+                }
+            }
+            buffer.flip();
+            return decode(buffer);
+        }
+    }
+
+    /**
+     * Writes a board to a binary file through a file channel.
+     * @param fileName - The file to write.
+     * @param board - Is the matrix of tokens of the board.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public static void write(String fileName, int[][] board) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedLength(board.length));
+        encode(board, buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Decodes the next board of a buffer, moving its position after the board.
+     * @param buffer - Is the buffer that holds the encoded board.
+     * @return the matrix of tokens of the board.
+     * @throws IOException - If the buffer does not hold a complete binary board.
+     */
+    public static int[][] decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+            throw new IOException("The data is not a binary puzzle");
+        }
+        int size = buffer.get() & 0xFF;
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IOException("Unsupported puzzle size: " + size);
+        }
+        if (buffer.remaining() < encodedLength(size) - HEADER_LENGTH) {
+            throw new EOFException("The binary puzzle is truncated");
+        }
+        int[][] board = new int[size][size];
+        if (size <= NIBBLE_MAX_SIZE) {
+            int packed = 0;
+            for (int index = 0; index < size * size; index++) {
+                if (index % 2 == 0) {
+                    packed = buffer.get();
+                }
+                int token = (index % 2 == 0 ? packed : packed >>> 4) & 0xF;
+                board[index / size][index % size] = token == 0 ? Puzzle.BLANK_TOKEN : token;
+            }
+        } else {
+            for (int index = 0; index < size * size; index++) {
+                int token = buffer.get() & 0xFF;
+                board[index / size][index % size] = token == 0 ? Puzzle.BLANK_TOKEN : token;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Encodes a board at the position of a buffer.
+     * @param board - Is the matrix of tokens of the board.
+     * @param buffer - Is the buffer where the board is written. It must have {@link #encodedLength} bytes left.
+     * @throws IllegalArgumentException - If the board does not fit in the format.
+     */
+    public static void encode(int[][] board, ByteBuffer buffer) throws IllegalArgumentException {
+        int size = board.length;
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported puzzle size: " + size);
+        }
+        buffer.putInt(MAGIC);
+        buffer.put((byte) size);
+        if (size <= NIBBLE_MAX_SIZE) {
+            int packed = 0;
+            for (int index = 0; index < size * size; index++) {
+                int token = tokenAt(board, index);
+                if (index % 2 == 0) {
+                    packed = token;
+                } else {
+                    buffer.put((byte) (packed | token << 4));
+                }
+            }
+            if (size % 2 == 1) {
+                buffer.put((byte) packed);
+            }
+        } else {
+            for (int index = 0; index < size * size; index++) {
+                buffer.put((byte) tokenAt(board, index));
+            }
+        }
+    }
+
+    /**
+     * Encodes a board given as a flat array of cells at the position of a buffer, without allocating.
+     * @param size - Is the size of the board.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+     * @param buffer - Is the buffer where the board is written. It must have {@link #encodedLength} bytes left.
+     * @throws IllegalArgumentException - If the board does not fit in the format.
+     */
+    public static void encode(int size, int[] cells, ByteBuffer buffer) throws IllegalArgumentException {
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported puzzle size: " + size);
+        }
+        buffer.putInt(MAGIC);
+        buffer.put((byte) size);
+        int cellCount = size * size;
+        if (size <= NIBBLE_MAX_SIZE) {
+            for (int index = 0; index + 1 < cellCount; index += 2) {
+                buffer.put((byte) (cells[index] | cells[index + 1] << 4));
+            }
+            if (cellCount % 2 == 1) {
+                buffer.put((byte) cells[cellCount - 1]);
+            }
+        } else {
+            for (int index = 0; index < cellCount; index++) {
+                buffer.put((byte) cells[index]);
+            }
+        }
+    }
+
+    /**
+     * Gets the token of a cell as stored in the format.
+     * @param board - Is the matrix of tokens of the board.
+     * @param index - Is the index of the cell, in row-major order.
+     * @return the token of the cell, where the blank token is 0.
+     */
+    private static int tokenAt(int[][] board, int index) {
+        int token = board[index / board.length][index % board.length];
+        return token == Puzzle.BLANK_TOKEN ? 0 : token;
+    }
+}
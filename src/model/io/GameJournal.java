@@ -0,0 +1,365 @@
+package model.io;
+
+import model.Puzzle;
+import model.UnsolvablePuzzleException;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only journal of a game. The file starts with a magic number, followed by records of two kinds: a movement,
+ * an undo or a redo is a single byte with its kind and the direction of the blank token, and a snapshot is a tag byte,
+ * the number of movements made and the board in the {@link BinaryPuzzleFormat}. Saving a movement only appends a byte
+ * to a buffer, and a game is resumed from its latest snapshot, replaying the movements that follow it.
+ * <p>
+ * A journal cut in the middle of a record, for example by a crash, is read up to the last complete record, and it is
+ * truncated there when it is opened to append.
+ */
+public class GameJournal implements Closeable {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the extension of the journal files.
+     */
+    public final static String JOURNAL_EXTENSION = "pzj";
+
+    /**
+     * Represents the first bytes of every journal.
+     */
+    public final static int MAGIC = 0x505A4A31;
+
+    /**
+     * Represents the number of movements after which a new snapshot is advised, so resuming never replays more.
+     */
+    public final static int SNAPSHOT_INTERVAL = 4096;
+
+    /**
+     * Represents the first record of a movement. Movement records are this value plus the direction of the blank token.
+     */
+    private final static int MOVE_RECORD = 0;
+
+    /**
+     * Represents the first record of an undo. Undo records are this value plus the direction of the blank token.
+     */
+    private final static int UNDO_RECORD = 4;
+
+    /**
+     * Represents the first record of a redo. Redo records are this value plus the direction of the blank token.
+     */
+    private final static int REDO_RECORD = 8;
+
+    /**
+     * Represents the number of directions of the blank token.
+     */
+    private final static int DIRECTIONS = 4;
+
+    /**
+     * Represents the tag of a snapshot record.
+     */
+    private final static byte SNAPSHOT_TAG = 0x53;
+
+    /**
+     * Represents the length of a snapshot record without its board: the tag and the number of movements.
+     */
+    private final static int SNAPSHOT_HEADER_LENGTH = 5;
+
+    /**
+     * Represents the length of the buffer of pending records.
+     */
+    private final static int BUFFER_LENGTH = 8192;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the channel of the journal file, positioned at its end.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Represents the records appended but not written to the file yet.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Represents the number of movements appended since the latest snapshot.
+     */
+    private int movesSinceSnapshot;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a journal that appends to an open channel.
+     * @param channel - Is the channel of the journal file, positioned at its end.
+     * @param movesSinceSnapshot - Is the number of movements in the file after its latest snapshot.
+     */
+    private GameJournal(FileChannel channel, int movesSinceSnapshot) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_LENGTH);
+        this.movesSinceSnapshot = movesSinceSnapshot;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new journal, replacing the file if it exists, that starts with a snapshot of the game.
+     * @param fileName - Is the file of the journal.
+     * @param board - Is the current board of the game.
+     * @param movements - Is the number of movements made.
+     * @return the journal, ready to append.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public static GameJournal create(String fileName, int[][] board, int movements) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        GameJournal journal = new GameJournal(channel, 0);
+        journal.buffer.putInt(MAGIC);
+        journal.appendSnapshot(board, movements);
+        return journal;
+    }
+
+    /**
+     * Opens an existing journal to append to it. An incomplete record at its end is discarded.
+     * @param fileName - Is the file of the journal.
+     * @return the journal, ready to append.
+     * @throws IOException - If there are problems reading the file or it is not a journal.
+     */
+    public static GameJournal open(String fileName) throws IOException {
+        Path path = Paths.get(fileName);
+        Scan scan;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The file is read instead of mapped, since some platforms can not truncate a mapped file.
+            ByteBuffer data = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+            while (data.hasRemaining() && channel.read(data) != -1) {
+                // Keeps reading until the buffer is full.
+            }
+            data.flip();
+            scan = scan(data, fileName);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        channel.truncate(scan.validLength);
+        channel.position(scan.validLength);
+        return new GameJournal(channel, scan.movesAfterSnapshot);
+    }
+
+    /**
+     * Resumes a saved game: the board of the latest snapshot is restored and the movements that follow it are
+     * replayed, so the number of movements of the puzzle is the saved one. The game is replayed on a new puzzle, so
+     * an invalid journal leaves no puzzle half replayed.
+     * @param fileName - Is the file of the journal.
+     * @return a new puzzle with the saved game.
+     * @throws IOException - If there are problems reading the file, or it is not a valid journal.
+     * @throws UnsolvablePuzzleException - If the saved board can not reach the solution.
+     */
+    public static Puzzle replay(String fileName) throws IOException, UnsolvablePuzzleException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            MappedByteBuffer data = map(channel, fileName);
+            Scan scan = scan(data, fileName);
+            data.position(scan.lastSnapshot + 1);
+            int movements = data.getInt();
+            Puzzle puzzle = new Puzzle(BinaryPuzzleFormat.decode(data), movements);
+            for (int position = data.position(); position < scan.validLength; position++) {
+                int record = data.get(position);
+                int direction = record % DIRECTIONS;
+                boolean replayed;
+                if (record < UNDO_RECORD) {
+                    replayed = puzzle.moveBlank(direction);
+                } else if (record < REDO_RECORD) {
+                    replayed = puzzle.undo(direction);
+                } else {
+                    replayed = puzzle.redo(direction);
+                }
+                if (!replayed) {
+                    throw new IOException("The journal " + fileName + " has an invalid movement at " + position);
+                }
+            }
+            return puzzle;
+        }
+    }
+
+    /**
+     * Appends a movement. It is written to the file on the next flush, or when the buffer is full.
+     * @param direction - Is the direction of the blank token, as defined by {@link Puzzle#BLANK_UP} and the others.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public void appendMove(int direction) throws IOException {
+        appendRecord(MOVE_RECORD + direction);
+    }
+
+    /**
+     * Appends an undo. It is written to the file on the next flush, or when the buffer is full.
+     * @param direction - Is the direction of the blank token when the movement was undone.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public void appendUndo(int direction) throws IOException {
+        appendRecord(UNDO_RECORD + direction);
+    }
+
+    /**
+     * Appends a redo. It is written to the file on the next flush, or when the buffer is full.
+     * @param direction - Is the direction of the blank token when the movement was redone.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public void appendRedo(int direction) throws IOException {
+        appendRecord(REDO_RECORD + direction);
+    }
+
+    /**
+     * Appends a snapshot of the game. It is written to the file on the next flush, or when the buffer is full.
+     * @param board - Is the current board of the game.
+     * @param movements - Is the number of movements made.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public void appendSnapshot(int[][] board, int movements) throws IOException {
+        int length = SNAPSHOT_HEADER_LENGTH + BinaryPuzzleFormat.encodedLength(board.length);
+        if (buffer.remaining() < length) {
+            flush();
+        }
+        buffer.put(SNAPSHOT_TAG);
+        buffer.putInt(movements);
+        BinaryPuzzleFormat.encode(board, buffer);
+        movesSinceSnapshot = 0;
+    }
+
+    /**
+     * Appends a single byte record.
+     * @param record - Is the kind of the record plus the direction of the blank token.
+     * @throws IOException - If there are problems writing the file.
+     */
+    private void appendRecord(int record) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) record);
+        movesSinceSnapshot++;
+    }
+
+    /**
+     * Gets the number of movements, undos and redos appended since the latest snapshot.
+     * @return the number of records that resuming the game would replay.
+     */
+    public int getMovesSinceSnapshot() {
+        return movesSinceSnapshot;
+    }
+
+    /**
+     * Writes the pending records to the file. The data reaches the operating system, so it survives a crash of the
+     * program.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the pending records and closes the file.
+     * @throws IOException - If there are problems writing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Maps a whole journal file in memory.
+     * @param channel - Is the channel of the file, open to read.
+     * @param fileName - Is the name of the file, for the error messages.
+     * @return the contents of the file.
+     * @throws IOException - If there are problems reading the file or it is too big.
+     */
+    private static MappedByteBuffer map(FileChannel channel, String fileName) throws IOException {
+        long length = channel.size();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("The journal " + fileName + " is too big");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+    }
+
+    /**
+     * Walks the records of a journal to find the latest snapshot and the end of the last complete record.
+     * @param data - Is the contents of the journal.
+     * @param fileName - Is the name of the file, for the error messages.
+     * @return the result of the walk.
+     * @throws IOException - If the data is not a journal or has no complete snapshot.
+     */
+    private static Scan scan(ByteBuffer data, String fileName) throws IOException {
+        int limit = data.limit();
+        if (limit < 4 || data.getInt(0) != MAGIC) {
+            throw new IOException("The file " + fileName + " is not a game journal");
+        }
+        Scan scan = new Scan();
+        scan.lastSnapshot = -1;
+        int position = 4;
+        while (position < limit) {
+            byte record = data.get(position);
+            if (record >= MOVE_RECORD && record < REDO_RECORD + DIRECTIONS) {
+                position++;
+                scan.movesAfterSnapshot++;
+            } else if (record == SNAPSHOT_TAG && position + SNAPSHOT_HEADER_LENGTH
+                    + BinaryPuzzleFormat.HEADER_LENGTH <= limit) {
+                int size = data.get(position + SNAPSHOT_HEADER_LENGTH + BinaryPuzzleFormat.HEADER_LENGTH - 1) & 0xFF;
+                if (size < 2 || size > BinaryPuzzleFormat.MAX_SIZE) {
+                    break;
+                }
+                int length = SNAPSHOT_HEADER_LENGTH + BinaryPuzzleFormat.encodedLength(size);
+                if (position + length > limit) {
+                    break;
+                }
+                scan.lastSnapshot = position;
+                scan.movesAfterSnapshot = 0;
+                position += length;
+            } else {
+                break;
+            }
+        }
+        if (scan.lastSnapshot == -1) {
+            throw new EOFException("The journal " + fileName + " has no complete snapshot");
+        }
+        scan.validLength = position;
+        return scan;
+    }
+
+    /**
+     * The result of walking the records of a journal.
+     */
+    private static class Scan {
+
+        /**
+         * Represents the position of the latest complete snapshot.
+         */
+        private int lastSnapshot;
+
+        /**
+         * Represents the number of movements after the latest snapshot.
+         */
+        private int movesAfterSnapshot;
+
+        /**
+         * Represents the length of the journal up to its last complete record.
+         */
+        private int validLength;
+    }
+}
@@ -0,0 +1,79 @@
+package model.io;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Properties;
+
+/**
+ * The text format of the game and solution files: a properties file with the key {@code puzzleSize} and one key
+ * {@code puzzle<row>-<column>} per cell, where the blank token is -1.
+ */
+public final class PropertiesPuzzleFormat {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the extension of the game files.
+     */
+    public final static String GAME_EXTENSION = "properties";
+
+    /**
+     * Represents the extension of the solution files.
+     */
+    public final static String SOLUTION_EXTENSION = "solution";
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private PropertiesPuzzleFormat() {
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads a board from a properties file.
+     * @param fileName - The file where the board is configured.
+     * @return the matrix of tokens of the board.
+     * @throws IOException - If there are problems reading the file.
+     * @throws NumberFormatException - If there are problems parsing strings to integers.
+     */
+    public static int[][] read(String fileName) throws IOException, NumberFormatException {
+        Properties properties = new Properties();
+        try (FileReader reader = new FileReader(fileName)) {
+            properties.load(reader);
+        }
+
+        int size = Integer.parseInt(properties.getProperty("puzzleSize"));
+        int[][] board = new int[size][size];
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board[0].length; j++) {
+                board[i][j] = Integer.parseInt(properties.getProperty("puzzle" + i + "-" + j));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Writes a board to a properties file, with the same layout as the files in the games folder.
+     * @param fileName - The file to write.
+     * @param board - Is the matrix of tokens of the board.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public static void write(String fileName, int[][] board) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
+            writer.print("puzzleSize=" + board.length);
+            for (int i = 0; i < board.length; i++) {
+                for (int j = 0; j < board.length; j++) {
+                    writer.print("\npuzzle" + i + "-" + j + "=" + board[i][j]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package model.io;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts the properties files of the games and solutions folders to the binary format, next to the originals.
+ */
+public final class PuzzleFileConverter {
+
+    private PuzzleFileConverter() {
+    }
+
+    /**
+     * Converts every file of a folder with the specified extension to the binary format.
+     * @param folderPath - Is the folder to convert.
+     * @param extension - Is the extension of the properties files to convert.
+     * @param binaryExtension - Is the extension of the binary files to write.
+     * @return the number of converted files.
+     * @throws IOException - If there are problems reading or writing the files.
+     */
+    public static int convertFolder(String folderPath, String extension, String binaryExtension) throws IOException {
+        File[] files = new File(folderPath).listFiles((folder, name) -> name.endsWith("." + extension));
+        if (files == null) {
+            throw new IOException("The folder " + folderPath + " can not be read");
+        }
+        for (File file : files) {
+            String name = file.getName();
+            String binaryName = name.substring(0, name.length() - extension.length()) + binaryExtension;
+            BinaryPuzzleFormat.write(new File(folderPath, binaryName).getPath(),
+                    PropertiesPuzzleFormat.read(file.getPath()));
+        }
+        return files.length;
+    }
+
+    /**
+     * Converts the games and solutions folders.
+     * @param args - CLI arguments. Optionally, the games folder and the solutions folder.
+     * @throws IOException - If there are problems reading or writing the files.
+     */
+    public static void main(String[] args) throws IOException {
+        String gamesPath = args.length > 0 ? args[0] : "./games/";
+        String solutionsPath = args.length > 1 ? args[1] : "./solutions/";
+        int games = convertFolder(gamesPath, PropertiesPuzzleFormat.GAME_EXTENSION,
+                BinaryPuzzleFormat.GAME_EXTENSION);
+        int solutions = convertFolder(solutionsPath, PropertiesPuzzleFormat.SOLUTION_EXTENSION,
+                BinaryPuzzleFormat.SOLUTION_EXTENSION);
+        System.out.println("Converted " + games + " games and " + solutions + " solutions");
+    }
+}
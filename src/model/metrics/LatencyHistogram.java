@@ -0,0 +1,178 @@
+package model.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of latencies, in nanoseconds, with log-linear buckets in the style of HdrHistogram: every
+ * power of two is split in {@link #SUB_BUCKET_COUNT} / 2 buckets of the same width, so every value is counted with a
+ * relative error below 1 / 16 over the whole range of longs, in a fixed array of counters. Recording a value is a
+ * few bit operations and an atomic increment, and it never allocates.
+ */
+public class LatencyHistogram {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the number of bits of the values counted one by one.
+     */
+    private final static int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Represents the number of values counted one by one; above them, every power of two has half as many buckets.
+     */
+    private final static int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Represents the number of buckets needed to count any non negative long.
+     */
+    private final static int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * (SUB_BUCKET_COUNT / 2) + SUB_BUCKET_COUNT;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the number of values of every bucket.
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * Represents the number of values recorded.
+     */
+    private final LongAdder count;
+
+    /**
+     * Represents the sum of the values recorded.
+     */
+    private final LongAdder sum;
+
+    /**
+     * Represents the biggest value recorded.
+     */
+    private final LongAccumulator max;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds an empty histogram.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKET_COUNT);
+        count = new LongAdder();
+        sum = new LongAdder();
+        max = new LongAccumulator(Math::max, 0);
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Records a latency.
+     * @param nanos - Is the latency in nanoseconds. Negative values, from clock adjustments, are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of values recorded.
+     * @return the number of values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     * @return the mean in nanoseconds, or 0 if there are no values.
+     */
+    public double getMean() {
+        long values = count.sum();
+        return values == 0 ? 0 : (double) sum.sum() / values;
+    }
+
+    /**
+     * Gets the biggest value recorded.
+     * @return the maximum in nanoseconds, or 0 if there are no values.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the value below which a percentage of the recorded values fall. Since the counters are read one by one,
+     * the result may mix values recorded meanwhile.
+     * @param percentile - Is the percentage, from 0 to 100.
+     * @return the highest value of the bucket of the percentile, in nanoseconds, or 0 if there are no values.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            total += counts.get(bucket);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Forgets every value recorded. Values recorded meanwhile may be partly kept.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Finds the bucket of a value.
+     * @param value - Is the non negative value.
+     * @return the index of its bucket.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * (SUB_BUCKET_COUNT / 2) + (int) (value >>> shift);
+    }
+
+    /**
+     * Finds the highest value counted by a bucket.
+     * @param bucket - Is the index of the bucket.
+     * @return the highest value of the bucket.
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / (SUB_BUCKET_COUNT / 2) - 1;
+        long subBucket = bucket - shift * (SUB_BUCKET_COUNT / 2);
+        long highest = ((subBucket + 1) << shift) - 1;
+        // The last bucket ends past the range of longs.
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
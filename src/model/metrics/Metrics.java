@@ -0,0 +1,381 @@
+package model.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters and latency histograms of the hot paths: movements, neighbour and solved checks, loads and searches.
+ * The counters are {@link LongAdder}s, so threads recording at the same time do not contend.
+ * <p>
+ * Metrics are off unless the JVM starts with -Dpuzzle.metrics=true. The flag is a static final field, so the JIT
+ * folds every check of it and the instrumented code runs as if it was not instrumented. When metrics are on, they are
+ * registered in the platform MBean server as {@link #OBJECT_NAME}, and -Dpuzzle.metrics.dump=seconds prints a report
+ * to the standard output with that period.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the system property that turns the metrics on.
+     */
+    public final static String ENABLED_PROPERTY = "puzzle.metrics";
+
+    /**
+     * Represents the system property with the period of the report, in seconds.
+     */
+    public final static String DUMP_PROPERTY = "puzzle.metrics.dump";
+
+    /**
+     * Represents whether the metrics are recorded. The instrumented code checks it before reading the clock.
+     */
+    public final static boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Represents the name of the MBean of the metrics.
+     */
+    public final static String OBJECT_NAME = "model.metrics:type=Metrics";
+
+    /**
+     * Represents the only instance, which is the registered MBean.
+     */
+    public final static Metrics INSTANCE = new Metrics();
+
+    /**
+     * Represents the number of nanoseconds in a second.
+     */
+    private final static double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Represents the number of nanoseconds in a microsecond.
+     */
+    private final static double NANOS_PER_MICROSECOND = 1e3;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the number of movements made.
+     */
+    private final LongAdder moves = new LongAdder();
+
+    /**
+     * Represents the number of movements rejected.
+     */
+    private final LongAdder rejectedMoves = new LongAdder();
+
+    /**
+     * Represents the number of neighbour checks.
+     */
+    private final LongAdder neighbourChecks = new LongAdder();
+
+    /**
+     * Represents the number of neighbour checks rejected.
+     */
+    private final LongAdder rejectedNeighbourChecks = new LongAdder();
+
+    /**
+     * Represents the number of solved checks. They are only counted, since a check is too short to be timed.
+     */
+    private final LongAdder solvedChecks = new LongAdder();
+
+    /**
+     * Represents the number of games that could not be loaded.
+     */
+    private final LongAdder failedLoads = new LongAdder();
+
+    /**
+     * Represents the number of nodes expanded by every search.
+     */
+    private final LongAdder nodesExpanded = new LongAdder();
+
+    /**
+     * Represents the time spent by every search, in nanoseconds.
+     */
+    private final LongAdder solveNanos = new LongAdder();
+
+    /**
+     * Represents the speed of the last search, in nodes per second.
+     */
+    private volatile double lastNodesPerSecond;
+
+    /**
+     * Represents the latency of every movement, made or rejected.
+     */
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    /**
+     * Represents the latency of every load that succeeded.
+     */
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+    /**
+     * Represents the latency of every search.
+     */
+    private final LatencyHistogram solveLatency = new LatencyHistogram();
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private Metrics() {
+    }
+
+    static {
+        if (ENABLED) {
+            register();
+            long dumpSeconds = Long.getLong(DUMP_PROPERTY, 0);
+            if (dumpSeconds > 0) {
+                startDump(System.out, dumpSeconds);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Records a movement.
+     * @param moved - Is true if the token was moved, false if the movement was rejected.
+     * @param nanos - Is the latency of the movement.
+     */
+    public static void recordMove(boolean moved, long nanos) {
+        (moved ? INSTANCE.moves : INSTANCE.rejectedMoves).increment();
+        INSTANCE.moveLatency.record(nanos);
+    }
+
+    /**
+     * Records a neighbour check.
+     * @param neighbour - Is true if the token was next to the blank cell.
+     */
+    public static void recordNeighbourCheck(boolean neighbour) {
+        INSTANCE.neighbourChecks.increment();
+        if (!neighbour) {
+            INSTANCE.rejectedNeighbourChecks.increment();
+        }
+    }
+
+    /**
+     * Records a solved check.
+     */
+    public static void recordSolvedCheck() {
+        INSTANCE.solvedChecks.increment();
+    }
+
+    /**
+     * Records a load of a game.
+     * @param loaded - Is true if the game was loaded, false if it failed.
+     * @param nanos - Is the latency of the load.
+     */
+    public static void recordLoad(boolean loaded, long nanos) {
+        if (loaded) {
+            INSTANCE.loadLatency.record(nanos);
+        } else {
+            INSTANCE.failedLoads.increment();
+        }
+    }
+
+    /**
+     * Records a search.
+     * @param nodes - Is the number of nodes expanded.
+     * @param nanos - Is the duration of the search.
+     */
+    public static void recordSolve(long nodes, long nanos) {
+        INSTANCE.nodesExpanded.add(nodes);
+        INSTANCE.solveNanos.add(nanos);
+        INSTANCE.solveLatency.record(nanos);
+        INSTANCE.lastNodesPerSecond = nanos == 0 ? 0 : nodes * NANOS_PER_SECOND / nanos;
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server, unless they are already registered.
+     * @return true if the metrics are registered.
+     */
+    public static synchronized boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+            return true;
+        } catch (JMException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Prints the report periodically from a daemon thread.
+     * @param out - Is the stream where the report is printed.
+     * @param periodSeconds - Is the period of the report, in seconds.
+     * @return the scheduled task, which stops the reports when it is cancelled.
+     */
+    public static ScheduledFuture<?> startDump(PrintStream out, long periodSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledFuture<?> dump = scheduler.scheduleAtFixedRate(() -> out.print(report()), periodSeconds,
+                periodSeconds, TimeUnit.SECONDS);
+        scheduler.shutdown();
+        return dump;
+    }
+
+    /**
+     * Builds a text report of every metric, with the latencies in microseconds.
+     * @return the report, a line per metric.
+     */
+    public static String report() {
+        Metrics m = INSTANCE;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "moves %d, rejected %d%n", m.getMoves(), m.getRejectedMoves()));
+        report.append(String.format(Locale.ROOT, "neighbour checks %d, rejected %d%n", m.getNeighbourChecks(),
+                m.getRejectedNeighbourChecks()));
+        report.append(String.format(Locale.ROOT, "solved checks %d%n", m.getSolvedChecks()));
+        report.append(String.format(Locale.ROOT, "loads %d, failed %d%n", m.getLoads(), m.getFailedLoads()));
+        report.append(String.format(Locale.ROOT, "solves %d, nodes %d, %.0f nodes/s, last %.0f nodes/s%n",
+                m.getSolves(), m.getNodesExpanded(), m.getNodesPerSecond(), m.getLastNodesPerSecond()));
+        appendLatency(report, "move", m.moveLatency);
+        appendLatency(report, "load", m.loadLatency);
+        appendLatency(report, "solve", m.solveLatency);
+        return report.toString();
+    }
+
+    /**
+     * Builds a one line summary of the movements and the searches, short enough for a status bar.
+     * @return the summary.
+     */
+    public static String summary() {
+        Metrics m = INSTANCE;
+        return String.format(Locale.ROOT, "%d moves (p99 %.1f us), %.0f nodes/s", m.getMoves(),
+                m.getMoveLatencyP99() / NANOS_PER_MICROSECOND, m.getLastNodesPerSecond());
+    }
+
+    /**
+     * Appends the line of a latency histogram to a report.
+     * @param report - Is the report.
+     * @param name - Is the name of the measured operation.
+     * @param histogram - Is the histogram of its latencies.
+     */
+    private static void appendLatency(StringBuilder report, String name, LatencyHistogram histogram) {
+        report.append(String.format(Locale.ROOT,
+                "%s latency us: count %d, mean %.2f, p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n", name,
+                histogram.getCount(), histogram.getMean() / NANOS_PER_MICROSECOND,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MICROSECOND,
+                histogram.getValueAtPercentile(90) / NANOS_PER_MICROSECOND,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MICROSECOND,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MICROSECOND,
+                histogram.getMax() / NANOS_PER_MICROSECOND));
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public long getRejectedMoves() {
+        return rejectedMoves.sum();
+    }
+
+    @Override
+    public long getNeighbourChecks() {
+        return neighbourChecks.sum();
+    }
+
+    @Override
+    public long getRejectedNeighbourChecks() {
+        return rejectedNeighbourChecks.sum();
+    }
+
+    @Override
+    public long getSolvedChecks() {
+        return solvedChecks.sum();
+    }
+
+    @Override
+    public long getLoads() {
+        return loadLatency.getCount();
+    }
+
+    @Override
+    public long getFailedLoads() {
+        return failedLoads.sum();
+    }
+
+    @Override
+    public long getSolves() {
+        return solveLatency.getCount();
+    }
+
+    @Override
+    public long getNodesExpanded() {
+        return nodesExpanded.sum();
+    }
+
+    @Override
+    public double getNodesPerSecond() {
+        long nanos = solveNanos.sum();
+        return nanos == 0 ? 0 : nodesExpanded.sum() * NANOS_PER_SECOND / nanos;
+    }
+
+    @Override
+    public double getLastNodesPerSecond() {
+        return lastNodesPerSecond;
+    }
+
+    @Override
+    public long getMoveLatencyP50() {
+        return moveLatency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getMoveLatencyP99() {
+        return moveLatency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getLoadLatencyP50() {
+        return loadLatency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLoadLatencyP99() {
+        return loadLatency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getSolveLatencyP99() {
+        return solveLatency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public void reset() {
+        moves.reset();
+        rejectedMoves.reset();
+        neighbourChecks.reset();
+        rejectedNeighbourChecks.reset();
+        solvedChecks.reset();
+        failedLoads.reset();
+        nodesExpanded.reset();
+        solveNanos.reset();
+        lastNodesPerSecond = 0;
+        moveLatency.reset();
+        loadLatency.reset();
+        solveLatency.reset();
+    }
+}
@@ -0,0 +1,109 @@
+package model.metrics;
+
+/**
+ * The management interface of the {@link Metrics}, registered in the platform MBean server as
+ * {@link Metrics#OBJECT_NAME}. The latencies are in nanoseconds.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Gets the number of movements made through {@link model.Puzzle#doMove(int)}.
+     * @return the number of movements made.
+     */
+    long getMoves();
+
+    /**
+     * Gets the number of movements rejected because the token was not next to the blank cell.
+     * @return the number of movements rejected.
+     */
+    long getRejectedMoves();
+
+    /**
+     * Gets the number of calls to {@link model.Puzzle#isBlankNeighbour(int)}.
+     * @return the number of neighbour checks.
+     */
+    long getNeighbourChecks();
+
+    /**
+     * Gets the number of neighbour checks whose token was not next to the blank cell.
+     * @return the number of neighbour checks rejected.
+     */
+    long getRejectedNeighbourChecks();
+
+    /**
+     * Gets the number of calls to {@link model.Puzzle#puzzleSolved()}.
+     * @return the number of solved checks.
+     */
+    long getSolvedChecks();
+
+    /**
+     * Gets the number of games loaded.
+     * @return the number of loads that succeeded.
+     */
+    long getLoads();
+
+    /**
+     * Gets the number of games that could not be loaded.
+     * @return the number of loads that failed.
+     */
+    long getFailedLoads();
+
+    /**
+     * Gets the number of boards solved by a search.
+     * @return the number of solves.
+     */
+    long getSolves();
+
+    /**
+     * Gets the number of nodes expanded by every search.
+     * @return the number of nodes expanded.
+     */
+    long getNodesExpanded();
+
+    /**
+     * Gets the mean speed of every search.
+     * @return the nodes expanded per second of search.
+     */
+    double getNodesPerSecond();
+
+    /**
+     * Gets the speed of the last search.
+     * @return the nodes expanded per second by the last search.
+     */
+    double getLastNodesPerSecond();
+
+    /**
+     * Gets the median latency of a movement.
+     * @return the median latency.
+     */
+    long getMoveLatencyP50();
+
+    /**
+     * Gets the 99th percentile of the latency of a movement.
+     * @return the 99th percentile.
+     */
+    long getMoveLatencyP99();
+
+    /**
+     * Gets the median latency of a load.
+     * @return the median latency.
+     */
+    long getLoadLatencyP50();
+
+    /**
+     * Gets the 99th percentile of the latency of a load.
+     * @return the 99th percentile.
+     */
+    long getLoadLatencyP99();
+
+    /**
+     * Gets the 99th percentile of the latency of a search.
+     * @return the 99th percentile.
+     */
+    long getSolveLatencyP99();
+
+    /**
+     * Forgets every value recorded.
+     */
+    void reset();
+}
@@ -0,0 +1,972 @@
+package model.solver;
+
+import model.Puzzle;
+import model.Zobrist;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A suboptimal solver with a bounded latency, for boards too big to be solved optimally while the user waits. It runs
+ * restarting weighted A*: a greedy search with a high weight finds a first solution quickly, and while the time budget
+ * lasts, searches with smaller weights look for shorter ones, pruning every node that can not beat the best solution
+ * found. The best solution is only proved optimal when a search runs out of nodes that could beat it. Reaching the
+ * solution proves nothing, even with weight 1, because a search returns the solution as soon as it is generated,
+ * before the nodes with a smaller cost are expanded.
+ * <p>
+ * The nodes live in primitive arrays allocated once per solve, sized by a memory budget, so the heap used by a solve
+ * is known in advance and no memory is allocated per node. If the first search fills them before reaching the
+ * solution, the path to the node closest to the solution is kept, and the search starts again from that node with
+ * empty arrays. When that stops getting closer, or the deadline comes, the rest is solved line by line, as a person
+ * would, which always fits in the arrays. The first solution is always awaited, and every later search stops at the
+ * deadline.
+ */
+public class AnytimeSolver implements Solver {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the biggest board size supported. The tokens of a node are stored in a byte per cell.
+     */
+    public final static int MAX_SIZE = 16;
+
+    /**
+     * Represents the default time budget to improve the first solution, in milliseconds.
+     */
+    public final static long DEFAULT_TIME_BUDGET_MILLIS = 500;
+
+    /**
+     * Represents the default memory budget of the nodes of a solve, in bytes.
+     */
+    public final static long DEFAULT_MAX_MEMORY_BYTES = 32L << 20;
+
+    /**
+     * Represents the weights of the heuristic in every search, scaled by {@link #WEIGHT_SCALE}: 5, 3, 2, 1.5, 1.25
+     * and 1.
+     */
+    private final static int[] WEIGHTS = {80, 48, 32, 24, 20, 16};
+
+    /**
+     * Represents the scale of the weights, so the priorities are integers.
+     */
+    private final static int WEIGHT_SCALE = 16;
+
+    /**
+     * Represents the weight of the heuristic when the first solution is solved line by line, scaled by
+     * {@link #WEIGHT_SCALE}. The searches of a line are almost greedy, since they do not look for short solutions.
+     */
+    private final static int LINE_WEIGHT = 8 * WEIGHT_SCALE;
+
+    /**
+     * Represents the bytes taken by a node besides its cells: its fields, two slots of the table and two entries of
+     * the open heap.
+     */
+    private final static int NODE_OVERHEAD_BYTES = 64;
+
+    /**
+     * Represents the bits of a heap entry that hold the index of its node.
+     */
+    private final static int NODE_BITS = 24;
+
+    /**
+     * Represents the bits of a heap entry that hold the tie breaker, which prefers the deepest nodes.
+     */
+    private final static int DEPTH_BITS = 16;
+
+    /**
+     * Represents the maximum number of nodes of a solve.
+     */
+    private final static int MAX_NODES = 1 << NODE_BITS;
+
+    /**
+     * Represents the number of expansions between two checks of the clock and the cancellation.
+     */
+    private final static int CHECK_INTERVAL = 1024;
+
+    /**
+     * Represents the result of a search that expanded every node within its bound.
+     */
+    private final static int EXHAUSTED = -1;
+
+    /**
+     * Represents the result of a search that filled its arrays.
+     */
+    private final static int FULL = -2;
+
+    /**
+     * Represents the result of a search that reached the deadline.
+     */
+    private final static int TIMED_OUT = -3;
+
+    /**
+     * Represents the result of a search that was cancelled.
+     */
+    private final static int STOPPED = -4;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the heuristic that guides the searches. It must be admissible to prune by the best solution.
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * Represents the heuristic of the solver as the guide of a search.
+     */
+    private final Guide heuristicGuide;
+
+    /**
+     * Represents the time budget to improve the first solution, in nanoseconds.
+     */
+    private final long timeBudgetNanos;
+
+    /**
+     * Represents the memory budget of the nodes of a solve, in bytes.
+     */
+    private final long maxMemoryBytes;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a solver guided by the Manhattan distance plus linear conflicts, with the default budgets.
+     */
+    public AnytimeSolver() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Builds a solver guided by the Manhattan distance plus linear conflicts, with the default memory budget.
+     * @param timeBudgetMillis - Is the time budget to improve the first solution, in milliseconds.
+     */
+    public AnytimeSolver(long timeBudgetMillis) {
+        this(new ManhattanLinearConflict(), timeBudgetMillis, DEFAULT_MAX_MEMORY_BYTES);
+    }
+
+    /**
+     * Builds a solver.
+     * @param heuristic - Is an admissible heuristic.
+     * @param timeBudgetMillis - Is the time budget to improve the first solution, in milliseconds.
+     * @param maxMemoryBytes - Is the memory budget of the nodes of a solve, in bytes.
+     */
+    public AnytimeSolver(Heuristic heuristic, long timeBudgetMillis, long maxMemoryBytes) {
+        this.heuristic = heuristic;
+        this.heuristicGuide = new HeuristicGuide(heuristic);
+        this.timeBudgetNanos = timeBudgetMillis * 1000000;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public Solution solve(Puzzle puzzle) throws IllegalArgumentException {
+        return solve(puzzle, new SolverMonitor());
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle, SolverMonitor monitor) throws IllegalArgumentException {
+        long start = System.nanoTime();
+        long deadline = start + timeBudgetNanos;
+        int size = puzzle.getPuzzleSize();
+        if (size > MAX_SIZE || !heuristic.supports(size)) {
+            throw new IllegalArgumentException(heuristic.getName() + " does not support boards of size " + size);
+        }
+        if (!puzzle.isSolvable()) {
+            throw new IllegalArgumentException("The puzzle has no solution");
+        }
+        int[] cells = SearchBoards.cellsOf(puzzle);
+        if (IdaStarSearch.isSolved(SearchBoards.positionsOf(cells))) {
+            return new Solution(new int[0], 0, System.nanoTime() - start);
+        }
+
+        int cellCount = size * size;
+        int capacity = (int) Math.max(1, Math.min(MAX_NODES, maxMemoryBytes / (cellCount + NODE_OVERHEAD_BYTES)));
+        Search search = new Search(size, capacity, monitor);
+        int[] best = search.firstSolution(cells, WEIGHTS[0], deadline);
+        for (int i = 1; i < WEIGHTS.length && System.nanoTime() < deadline; i++) {
+            search.reset(cells, heuristicGuide, WEIGHTS[i]);
+            int result = search.search(best.length, deadline);
+            if (result >= 0) {
+                best = search.replay(cells.clone(), result);
+            } else if (result == EXHAUSTED) {
+                // No node within the bound was left, so no shorter solution exists.
+                break;
+            } else if (result == STOPPED) {
+                throw new CancellationException("The search was cancelled");
+            } else {
+                break;
+            }
+        }
+        return new Solution(best, search.nodesExpanded, System.nanoTime() - start);
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Inner classes
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The arrays of the nodes of a solve, reused by every search of it. A node is the tokens of its cells, its parent,
+     * its cost from the root, its estimate, the cell of its blank token and its Zobrist hash. The nodes are found by
+     * hash in an open addressing table, and the open ones are kept in a binary heap of longs that hold the priority
+     * and the index of the node; a node whose cost improves is pushed again, and its stale entries are skipped.
+     */
+    private class Search {
+
+        /**
+         * Represents the size of the board.
+         */
+        private final int size;
+
+        /**
+         * Represents the number of cells of the board.
+         */
+        private final int cellCount;
+
+        /**
+         * Represents the maximum number of nodes.
+         */
+        private final int capacity;
+
+        /**
+         * Represents the monitor that may cancel the solve.
+         */
+        private final SolverMonitor monitor;
+
+        /**
+         * Represents the Zobrist keys of the size.
+         */
+        private final long[] keys;
+
+        /**
+         * Represents the tokens of the cells of every node, one byte per cell.
+         */
+        private final byte[] states;
+
+        /**
+         * Represents the parent of every node, or -1 for the root.
+         */
+        private final int[] parents;
+
+        /**
+         * Represents the number of movements from the root to every node.
+         */
+        private final int[] costs;
+
+        /**
+         * Represents the estimate of the heuristic of every node.
+         */
+        private final int[] estimates;
+
+        /**
+         * Represents the cell of the blank token of every node.
+         */
+        private final int[] blanks;
+
+        /**
+         * Represents the Zobrist hash of every node.
+         */
+        private final long[] hashes;
+
+        /**
+         * Represents the hash of the node of every slot of the table, or 0 if the slot is empty.
+         */
+        private final long[] tableKeys;
+
+        /**
+         * Represents the node of every slot of the table.
+         */
+        private final int[] tableNodes;
+
+        /**
+         * Represents the mask that turns a hash into a slot of the table.
+         */
+        private final int tableMask;
+
+        /**
+         * Represents the open nodes, as a binary heap of priorities and nodes.
+         */
+        private final long[] heap;
+
+        /**
+         * Represents the token of every cell of the node being expanded.
+         */
+        private final int[] cells;
+
+        /**
+         * Represents the cell of every token of the node being expanded.
+         */
+        private final int[] positions;
+
+        /**
+         * Represents the number of nodes in use.
+         */
+        private int nodeCount;
+
+        /**
+         * Represents the number of entries of the heap.
+         */
+        private int heapSize;
+
+        /**
+         * Represents the node with the lowest estimate besides the root, where the first search restarts.
+         */
+        private int closestNode;
+
+        /**
+         * Represents the cells whose tokens are already in place and may not move, while the first solution is
+         * solved line by line.
+         */
+        private final boolean[] frozen;
+
+        /**
+         * Represents the tokens that tell the boards apart: every token, but while a line is solved, only the blank
+         * token and the tokens being moved, since the others do not change the way to their cells. The nodes of a
+         * line are then few enough to always fit in the arrays.
+         */
+        private final boolean[] tracked;
+
+        /**
+         * Represents the guide of the current search, which is the heuristic of the solver but while the first
+         * solution is solved line by line.
+         */
+        private Guide guide;
+
+        /**
+         * Represents the hashes of the roots of the first search, which are never chosen to restart from again.
+         */
+        private final LongByteHashMap roots;
+
+        /**
+         * Represents the weight of the current search, scaled by {@link #WEIGHT_SCALE}.
+         */
+        private int weight;
+
+        /**
+         * Represents the number of nodes expanded by every search of the solve.
+         */
+        private long nodesExpanded;
+
+        /**
+         * Builds the arrays of a solve.
+         * @param size - Is the size of the board.
+         * @param capacity - Is the maximum number of nodes.
+         * @param monitor - Is the monitor that may cancel the solve.
+         */
+        private Search(int size, int capacity, SolverMonitor monitor) {
+            this.size = size;
+            this.cellCount = size * size;
+            this.capacity = capacity;
+            this.monitor = monitor;
+            this.keys = Zobrist.keys(size);
+            this.states = new byte[capacity * cellCount];
+            this.parents = new int[capacity];
+            this.costs = new int[capacity];
+            this.estimates = new int[capacity];
+            this.blanks = new int[capacity];
+            this.hashes = new long[capacity];
+            int tableCapacity = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.tableKeys = new long[tableCapacity];
+            this.tableNodes = new int[tableCapacity];
+            this.tableMask = tableCapacity - 1;
+            this.heap = new long[capacity * 2];
+            this.cells = new int[cellCount];
+            this.positions = new int[cellCount];
+            this.frozen = new boolean[cellCount];
+            this.tracked = new boolean[cellCount];
+            Arrays.fill(tracked, true);
+            this.roots = new LongByteHashMap(0);
+        }
+
+        /**
+         * Finds a first solution, however long. When the arrays fill up, the path to the node closest to the solution
+         * is kept and the search starts again from it. If no node got closer than the root, the search is stuck in a
+         * local minimum, usually a few tokens away from the solution but behind tokens already in place, so the rest
+         * is solved line by line: the first row, the first column, then the next row and column and so on, freezing
+         * the lines in place, until the last two rows and columns are solved together. The rest is also solved line
+         * by line when the deadline comes, which is quicker on big boards, although the solution is longer.
+         * @param rootCells - Is the board to solve.
+         * @param weight - Is the weight of the heuristic, scaled by {@link #WEIGHT_SCALE}.
+         * @param deadline - Is the time when the rest is solved line by line, as given by {@link System#nanoTime()}.
+         * @return the tokens to move.
+         * @throws CancellationException - If the solve is cancelled.
+         */
+        private int[] firstSolution(int[] rootCells, int weight, long deadline) throws CancellationException {
+            int[] board = rootCells.clone();
+            int[] path = descend(board, heuristicGuide, weight, deadline);
+            if (!IdaStarSearch.isSolved(SearchBoards.positionsOf(board))) {
+                for (int line = 0; line < size - 2; line++) {
+                    path = join(path, solveLine(board, rowTokens(line), size));
+                    path = join(path, solveLine(board, columnTokens(line), 1));
+                }
+                path = join(path, solveLine(board, cornerTokens(), 0));
+                Arrays.fill(frozen, false);
+            }
+            return path;
+        }
+
+        /**
+         * Moves a board towards the goal of a guide, the board where its estimate is 0, restarting from the node
+         * closest to the goal every time the arrays fill up. The roots of the restarts are never chosen again, so a
+         * search that finds no node closer than its root does not go back and forth.
+         * @param board - Is the board to move, which is left at the last board reached.
+         * @param guide - Is the guide whose goal is reached.
+         * @param weight - Is the weight of the heuristic, scaled by {@link #WEIGHT_SCALE}.
+         * @param deadline - Is the time when the descent gives up, as given by {@link System#nanoTime()}, or
+         *                 {@link Long#MAX_VALUE} to never give up. A descent that may give up also does when no node
+         *                 got closer than the root.
+         * @return the tokens moved.
+         * @throws CancellationException - If the solve is cancelled.
+         */
+        private int[] descend(int[] board, Guide guide, int weight, long deadline)
+                throws CancellationException {
+            int[] path = new int[0];
+            if (guide.estimate(board, SearchBoards.positionsOf(board), size) == 0) {
+                return path;
+            }
+            while (true) {
+                reset(board, guide, weight);
+                roots.putIfAbsent(hashes[0], 0);
+                int result = search(Integer.MAX_VALUE, deadline);
+                if (result == STOPPED) {
+                    throw new CancellationException("The search was cancelled");
+                }
+                int node = result >= 0 ? result : closestNode;
+                if (result == EXHAUSTED || node < 0) {
+                    throw new IllegalStateException("The search found no way to the solution");
+                }
+                if (result < 0 && deadline != Long.MAX_VALUE && estimates[node] >= estimates[0]) {
+                    return path;
+                }
+                path = join(path, replay(board, node));
+                if (result >= 0 || result == TIMED_OUT) {
+                    return path;
+                }
+            }
+        }
+
+        /**
+         * Moves the tokens of a line to their cells and keeps them there in the next searches. The tokens are moved
+         * one by one, freezing each one in its cell; searching for all of them at once gets stuck, since the tokens in
+         * place block the way of the others. The last token has no way in past the one before it, so unless the line
+         * is already in place, those two are placed together in the cell of the last token and beside it, where two
+         * movements slide them in. The three tokens of the corner are moved without freezing them, since they can
+         * only turn around their four cells.
+         * @param board - Is the board to move, which is left with the line in place.
+         * @param tokens - Is the tokens of the line, in order.
+         * @param beside - Is the offset from the cell of the last token to the cell beside it, out of the line, or 0
+         *               to move every token one by one.
+         * @return the tokens moved.
+         * @throws CancellationException - If the solve is cancelled.
+         */
+        private int[] solveLine(int[] board, int[] tokens, int beside) throws CancellationException {
+            int last = tokens.length - 1;
+            int[] homes = new int[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                homes[i] = tokens[i] - 1;
+            }
+            int[] path = new int[0];
+            int oneByOne = beside == 0 ? tokens.length : last - 1;
+            for (int count = 1; count <= oneByOne; count++) {
+                Placement placement = new Placement(Arrays.copyOf(tokens, count), Arrays.copyOf(homes, count));
+                path = join(path, place(board, placement));
+                if (beside != 0) {
+                    frozen[homes[count - 1]] = true;
+                }
+            }
+            if (beside != 0) {
+                Placement line = new Placement(tokens, homes);
+                if (line.estimate(board, SearchBoards.positionsOf(board), size) != 0) {
+                    int[] targets = homes.clone();
+                    targets[last - 1] = homes[last];
+                    targets[last] = homes[last] + beside;
+                    path = join(path, place(board, new Placement(tokens, targets)));
+                }
+                path = join(path, place(board, line));
+            }
+            for (int home : homes) {
+                frozen[home] = true;
+            }
+            return path;
+        }
+
+        /**
+         * Moves some tokens of a board to their cells, telling the boards apart only by those tokens.
+         * @param board - Is the board to move, which is left with the tokens in their cells.
+         * @param placement - Is the heuristic of the tokens.
+         * @return the tokens moved.
+         * @throws CancellationException - If the solve is cancelled.
+         */
+        private int[] place(int[] board, Placement placement) throws CancellationException {
+            Arrays.fill(tracked, false);
+            tracked[0] = true;
+            for (int token : placement.tokens) {
+                tracked[token] = true;
+            }
+            int[] path = descend(board, placement, LINE_WEIGHT, Long.MAX_VALUE);
+            Arrays.fill(tracked, true);
+            return path;
+        }
+
+        /**
+         * Gets the tokens of a row, from the cell of its line to the last column.
+         * @param line - Is the row, which is also its first column.
+         * @return the tokens of the row, in order.
+         */
+        private int[] rowTokens(int line) {
+            int[] tokens = new int[size - line];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = line * size + line + i + 1;
+            }
+            return tokens;
+        }
+
+        /**
+         * Gets the tokens of a column, from the cell below its line to the last row.
+         * @param line - Is the column, which is also the row above it.
+         * @return the tokens of the column, in order.
+         */
+        private int[] columnTokens(int line) {
+            int[] tokens = new int[size - line - 1];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = (line + i + 1) * size + line + 1;
+            }
+            return tokens;
+        }
+
+        /**
+         * Gets the tokens of the last two rows and columns, which are solved together.
+         * @return the three tokens of the corner.
+         */
+        private int[] cornerTokens() {
+            int first = (size - 2) * size + size - 2;
+            return new int[]{first + 1, first + 2, first + size + 1};
+        }
+
+        /**
+         * Empties the arrays and adds the root node, to start a new search.
+         * @param rootCells - Is the board of the root.
+         * @param guide - Is the guide of the new search.
+         * @param weight - Is the weight of the heuristic in the new search, scaled by {@link #WEIGHT_SCALE}.
+         */
+        private void reset(int[] rootCells, Guide guide, int weight) {
+            this.guide = guide;
+            this.weight = weight;
+            Arrays.fill(tableKeys, 0);
+            nodeCount = 0;
+            heapSize = 0;
+            closestNode = -1;
+            System.arraycopy(rootCells, 0, cells, 0, cellCount);
+            for (int cell = 0; cell < cellCount; cell++) {
+                positions[cells[cell]] = cell;
+            }
+            long hash = 0;
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (tracked[cells[cell]]) {
+                    hash ^= keys[cell * cellCount + cells[cell]];
+                }
+            }
+            int node = addNode(-1, 0, guide.estimate(cells, positions, size), positions[0], hash,
+                    tableSlot(hash));
+            push(node);
+        }
+
+        /**
+         * Runs a weighted A* from the root, until it reaches the solution or stops.
+         * @param bound - Is the length of the best solution known; the nodes that can not beat it are pruned.
+         * @param deadline - Is the time when the search stops, as given by {@link System#nanoTime()}.
+         * @return the node of the solution, or {@link #EXHAUSTED}, {@link #FULL}, {@link #TIMED_OUT} or
+         * {@link #STOPPED}.
+         */
+        private int search(int bound, long deadline) {
+            long expansions = 0;
+            while (heapSize > 0) {
+                long entry = pop();
+                int node = (int) (entry & (MAX_NODES - 1));
+                if (entry != entryOf(node)) {
+                    continue;
+                }
+                if (++expansions % CHECK_INTERVAL == 0) {
+                    if (monitor.isCancelled()) {
+                        return STOPPED;
+                    }
+                    if (System.nanoTime() > deadline) {
+                        return TIMED_OUT;
+                    }
+                }
+                nodesExpanded++;
+                int base = node * cellCount;
+                for (int cell = 0; cell < cellCount; cell++) {
+                    int token = states[base + cell] & 0xFF;
+                    cells[cell] = token;
+                    positions[token] = cell;
+                }
+                int blank = blanks[node];
+                int previousBlank = parents[node] == -1 ? -1 : blanks[parents[node]];
+                int cost = costs[node] + 1;
+                for (int direction = 0; direction < 4; direction++) {
+                    int cell = IdaStarSearch.neighbour(blank, size, direction);
+                    if (cell == -1 || cell == previousBlank || frozen[cell]) {
+                        continue;
+                    }
+                    int token = cells[cell];
+                    cells[blank] = token;
+                    cells[cell] = 0;
+                    positions[token] = blank;
+                    positions[0] = cell;
+                    int estimate = guide.update(cells, positions, size, estimates[node], token, cell, blank);
+                    int result = cost + estimate < bound ? visit(node, cost, estimate, cell, token) : EXHAUSTED;
+                    cells[cell] = token;
+                    cells[blank] = 0;
+                    positions[token] = cell;
+                    positions[0] = blank;
+                    if (result != EXHAUSTED) {
+                        return result;
+                    }
+                }
+            }
+            return EXHAUSTED;
+        }
+
+        /**
+         * Adds a child to the search, or improves the cost of the node of its board if it was already reached.
+         * @param parent - Is the expanded node.
+         * @param cost - Is the number of movements from the root to the child.
+         * @param estimate - Is the estimate of the child.
+         * @param blank - Is the cell of the blank token of the child.
+         * @param token - Is the token moved from the parent to the child.
+         * @return the node of the child if it is the solution, {@link #FULL} if there is no room left, or
+         * {@link #EXHAUSTED} to keep searching.
+         */
+        private int visit(int parent, int cost, int estimate, int blank, int token) {
+            int parentBlank = blanks[parent];
+            long hash = hashes[parent] ^ keys[parentBlank * cellCount] ^ keys[blank * cellCount];
+            if (tracked[token]) {
+                hash ^= keys[blank * cellCount + token] ^ keys[parentBlank * cellCount + token];
+            }
+            int slot = tableSlot(hash);
+            if (tableKeys[slot] != 0) {
+                int node = tableNodes[slot];
+                if (cost >= costs[node]) {
+                    return EXHAUSTED;
+                }
+                costs[node] = cost;
+                parents[node] = parent;
+                return push(node) ? EXHAUSTED : FULL;
+            }
+            if (nodeCount == capacity) {
+                return FULL;
+            }
+            int node = addNode(parent, cost, estimate, blank, hash, slot);
+            if (estimate == 0 && (guide != heuristicGuide || IdaStarSearch.isSolved(positions))) {
+                return node;
+            }
+            if ((closestNode == -1 || estimate < estimates[closestNode]
+                    || (estimate == estimates[closestNode] && cost > costs[closestNode]))
+                    && roots.get(hash) == LongByteHashMap.MISSING) {
+                closestNode = node;
+            }
+            return push(node) ? EXHAUSTED : FULL;
+        }
+
+        /**
+         * Stores the current board as a new node.
+         * @param parent - Is the parent of the node, or -1 for the root.
+         * @param cost - Is the number of movements from the root to the node.
+         * @param estimate - Is the estimate of the node.
+         * @param blank - Is the cell of the blank token.
+         * @param hash - Is the Zobrist hash of the board.
+         * @param slot - Is the empty slot of the table where the node goes.
+         * @return the new node.
+         */
+        private int addNode(int parent, int cost, int estimate, int blank, long hash, int slot) {
+            int node = nodeCount++;
+            int base = node * cellCount;
+            for (int cell = 0; cell < cellCount; cell++) {
+                states[base + cell] = (byte) cells[cell];
+            }
+            parents[node] = parent;
+            costs[node] = cost;
+            estimates[node] = estimate;
+            blanks[node] = blank;
+            hashes[node] = hash;
+            tableKeys[slot] = keyOf(hash);
+            tableNodes[slot] = node;
+            return node;
+        }
+
+        /**
+         * Finds the slot of the current board in the table: the one of its node, or the empty slot where it would go.
+         * @param hash - Is the Zobrist hash of the current board.
+         * @return the slot of the board.
+         */
+        private int tableSlot(long hash) {
+            long key = keyOf(hash);
+            int slot = (int) (key ^ (key >>> 32)) & tableMask;
+            while (tableKeys[slot] != 0 && (tableKeys[slot] != key || !isCurrentBoard(tableNodes[slot]))) {
+                slot = (slot + 1) & tableMask;
+            }
+            return slot;
+        }
+
+        /**
+         * Turns a hash into a key of the table, where 0 marks the empty slots.
+         * @param hash - Is the Zobrist hash of a board.
+         * @return the key of the board, never 0.
+         */
+        private long keyOf(long hash) {
+            return hash == 0 ? 1 : hash;
+        }
+
+        /**
+         * Checks if a node holds the current board. Two boards with the same hash are almost always equal, but the
+         * tracked tokens are compared to be sure.
+         * @param node - Is the node to compare.
+         * @return true if the node has the same tracked tokens as the current board.
+         */
+        private boolean isCurrentBoard(int node) {
+            int base = node * cellCount;
+            for (int cell = 0; cell < cellCount; cell++) {
+                int token = states[base + cell] & 0xFF;
+                if (token != cells[cell] && (tracked[token] || tracked[cells[cell]])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Builds the heap entry of a node: its priority, the cost plus the weighted estimate, then the deepest node
+         * first, then its index.
+         * @param node - Is the node.
+         * @return the entry, lower for the nodes to expand first.
+         */
+        private long entryOf(int node) {
+            long priority = (long) costs[node] * WEIGHT_SCALE + (long) weight * estimates[node];
+            long depth = (1 << DEPTH_BITS) - 1 - Math.min(costs[node], (1 << DEPTH_BITS) - 1);
+            return (priority << (NODE_BITS + DEPTH_BITS)) | (depth << NODE_BITS) | node;
+        }
+
+        /**
+         * Adds a node to the open heap.
+         * @param node - Is the node.
+         * @return true if the node was added, false if the heap is full.
+         */
+        private boolean push(int node) {
+            if (heapSize == heap.length) {
+                return false;
+            }
+            long entry = entryOf(node);
+            int index = heapSize++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent] <= entry) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = entry;
+            return true;
+        }
+
+        /**
+         * Removes the lowest entry of the open heap.
+         * @return the entry.
+         */
+        private long pop() {
+            long top = heap[0];
+            long last = heap[--heapSize];
+            int index = 0;
+            while (true) {
+                int child = index * 2 + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (last <= heap[child]) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = last;
+            return top;
+        }
+
+        /**
+         * Joins two paths.
+         * @param first - Is the first path.
+         * @param second - Is the path that follows it.
+         * @return the tokens of both paths, in order.
+         */
+        private int[] join(int[] first, int[] second) {
+            int[] path = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, path, first.length, second.length);
+            return path;
+        }
+
+        /**
+         * Moves a board from the root to a node, building the tokens moved. The path is walked through the parents,
+         * since the cost of a node is not updated when the cost of one of its ancestors improves, and the movements
+         * of the blank token are replayed on the board, since a node told apart only by some tokens may hold other
+         * tokens than the board reached through its parent.
+         * @param board - Is the board of the root, which is left at the board of the node.
+         * @param node - Is the last node of the path.
+         * @return the tokens to move, in order.
+         */
+        private int[] replay(int[] board, int node) {
+            int length = 0;
+            for (int ancestor = node; parents[ancestor] != -1; ancestor = parents[ancestor]) {
+                length++;
+            }
+            int[] blankCells = new int[length];
+            for (int step = length - 1; step >= 0; step--) {
+                blankCells[step] = blanks[node];
+                node = parents[node];
+            }
+            int[] path = new int[length];
+            int blank = blanks[node];
+            for (int step = 0; step < length; step++) {
+                int cell = blankCells[step];
+                path[step] = board[cell];
+                board[blank] = board[cell];
+                board[cell] = 0;
+                blank = cell;
+            }
+            return path;
+        }
+    }
+
+    /**
+     * An estimation of the movements left to reach the goal of a search. Unlike a {@link Heuristic} it does not have
+     * to be admissible: the searches only prune by the best solution when guided by the heuristic of the solver.
+     */
+    private interface Guide {
+
+        /**
+         * Estimates the movements left to reach the goal.
+         * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+         * @param positions - Is the cell of every token, where the position 0 is the one of the blank token.
+         * @param size - Is the size of the board.
+         * @return the estimation, 0 only at the goal.
+         */
+        int estimate(int[] cells, int[] positions, int size);
+
+        /**
+         * Updates the estimation after a token was moved to the blank cell. The arrays are already updated when
+         * called. By default the board is estimated again from scratch.
+         * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+         * @param positions - Is the cell of every token, where the position 0 is the one of the blank token.
+         * @param size - Is the size of the board.
+         * @param previousEstimate - Is the estimation of the board before the movement.
+         * @param token - Is the token that was moved.
+         * @param from - Is the cell where the token was placed before the movement.
+         * @param to - Is the cell where the token is placed now.
+         * @return the estimation, 0 only at the goal.
+         */
+        default int update(int[] cells, int[] positions, int size, int previousEstimate, int token, int from, int to) {
+            return estimate(cells, positions, size);
+        }
+    }
+
+    /**
+     * The guide of the searches towards the solution: the admissible heuristic of the solver.
+     */
+    private static class HeuristicGuide implements Guide {
+
+        /**
+         * Represents the admissible heuristic.
+         */
+        private final Heuristic heuristic;
+
+        /**
+         * Builds the guide of a heuristic.
+         * @param heuristic - Is the admissible heuristic.
+         */
+        private HeuristicGuide(Heuristic heuristic) {
+            this.heuristic = heuristic;
+        }
+
+        @Override
+        public int estimate(int[] cells, int[] positions, int size) {
+            return heuristic.estimate(cells, positions, size);
+        }
+
+        @Override
+        public int update(int[] cells, int[] positions, int size, int previousEstimate, int token, int from, int to) {
+            return heuristic.update(cells, positions, size, previousEstimate, token, from, to);
+        }
+    }
+
+    /**
+     * The guide of some tokens to move to some cells, used to solve the first solution line by line. It is the
+     * Manhattan distance from every token to its cell, counted as the movements of the blank token needed to move a
+     * token a cell, plus the distance from the blank token to the last token out of place, so the blank token is led
+     * to the token being moved. It is 0 when the tokens are in their cells, no matter the other tokens, and it is not
+     * admissible.
+     */
+    private static class Placement implements Guide {
+
+        /**
+         * Represents the movements of the blank token needed to move a token a cell in a straight line.
+         */
+        private final static int TOKEN_MOVES = 5;
+
+        /**
+         * Represents the tokens to move.
+         */
+        private final int[] tokens;
+
+        /**
+         * Represents the cell of every token to move.
+         */
+        private final int[] targets;
+
+        /**
+         * Builds the guide of a placement.
+         * @param tokens - Is the tokens to move.
+         * @param targets - Is the cell of every token.
+         */
+        private Placement(int[] tokens, int[] targets) {
+            this.tokens = tokens;
+            this.targets = targets;
+        }
+
+        @Override
+        public int estimate(int[] cells, int[] positions, int size) {
+            int distance = 0;
+            int target = -1;
+            for (int i = 0; i < tokens.length; i++) {
+                int tokenDistance = distance(positions[tokens[i]], targets[i], size);
+                if (tokenDistance > 0) {
+                    distance += tokenDistance;
+                    target = tokens[i];
+                }
+            }
+            if (distance == 0) {
+                return 0;
+            }
+            return distance * TOKEN_MOVES + distance(positions[target], positions[0], size) - 1;
+        }
+
+        /**
+         * Measures the Manhattan distance between two cells.
+         * @param first - Is the first cell.
+         * @param second - Is the second cell.
+         * @param size - Is the size of the board.
+         * @return the number of rows and columns between the cells.
+         */
+        private static int distance(int first, int second, int size) {
+            return Math.abs(first / size - second / size) + Math.abs(first % size - second % size);
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package model.solver;
+
+import model.Puzzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * An optimal solver based on a bidirectional breadth first search, from the board and from the ordered solution at
+ * the same time. Every board is packed in a long with 4 bits per cell, so only boards up to 4x4 are supported, and the
+ * visited boards of every side are kept in a primitive map with their depth: the whole 3x3 state space takes a few
+ * megabytes. The side with the smaller frontier is expanded a whole layer at a time, and the search stops at the
+ * first layer where the sides meet.
+ * <p>
+ * Since the depths of every visited board are known, the solver can also list every optimal solution, not only one.
+ */
+public class BidirectionalSolver implements Solver {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the biggest board size supported, the one that fits in a long with 4 bits per cell.
+     */
+    public final static int MAX_SIZE = 4;
+
+    /**
+     * Represents the default maximum number of boards visited by both sides, about 75 MB of maps.
+     */
+    public final static int DEFAULT_MAX_STATES = 1 << 22;
+
+    /**
+     * Represents the number of expansions between two checks of the cancellation flag.
+     */
+    private final static int CANCEL_CHECK_INTERVAL = 4096;
+
+    /**
+     * Represents the mask of a single cell of a packed board.
+     */
+    private final static long CELL_MASK = 0xFL;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the maximum number of boards visited by both sides before giving up.
+     */
+    private final int maxStates;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a solver that visits up to {@link #DEFAULT_MAX_STATES} boards.
+     */
+    public BidirectionalSolver() {
+        this(DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Builds a solver with a bounded memory.
+     * @param maxStates - Is the maximum number of boards visited by both sides before giving up.
+     */
+    public BidirectionalSolver(int maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public Solution solve(Puzzle puzzle) throws IllegalArgumentException {
+        return solve(puzzle, new SolverMonitor());
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle, SolverMonitor monitor) throws IllegalArgumentException {
+        long start = System.nanoTime();
+        Search search = search(puzzle, monitor);
+        List<int[]> solutions = search.solutions(1);
+        return new Solution(solutions.get(0), search.nodesExpanded, System.nanoTime() - start);
+    }
+
+    /**
+     * Finds every optimal solution of a puzzle, up to a maximum. The number of optimal solutions can grow
+     * exponentially with their length, so the maximum should be kept small for long solutions.
+     * @param puzzle - Is the puzzle to solve. It is not modified.
+     * @param maxSolutions - Is the maximum number of solutions to return.
+     * @return the tokens to move of every optimal solution found, all of the same length.
+     * @throws IllegalArgumentException - If the puzzle can not be solved, or it needs too much memory.
+     */
+    public List<int[]> solveAll(Puzzle puzzle, int maxSolutions) throws IllegalArgumentException {
+        return search(puzzle, new SolverMonitor()).solutions(maxSolutions);
+    }
+
+    /**
+     * Runs the bidirectional search until both sides meet.
+     * @param puzzle - Is the puzzle to solve.
+     * @param monitor - Is the monitor of the search.
+     * @return the finished search.
+     * @throws IllegalArgumentException - If the puzzle can not be solved, or it needs too much memory.
+     */
+    private Search search(Puzzle puzzle, SolverMonitor monitor) throws IllegalArgumentException {
+        int size = puzzle.getPuzzleSize();
+        if (size > MAX_SIZE) {
+            throw new IllegalArgumentException("The bidirectional search does not support boards of size " + size);
+        }
+        if (!puzzle.isSolvable()) {
+            throw new IllegalArgumentException("The puzzle has no solution");
+        }
+        int[] cells = SearchBoards.cellsOf(puzzle);
+        int[] goal = new int[cells.length];
+        for (int cell = 0; cell < goal.length - 1; cell++) {
+            goal[cell] = cell + 1;
+        }
+        Search search = new Search(size, pack(cells), pack(goal), monitor);
+        search.run();
+        return search;
+    }
+
+    /**
+     * Packs a board in a long with 4 bits per cell.
+     * @param cells - Is the token of every cell, where 0 is the blank token.
+     * @return the packed board.
+     */
+    private static long pack(int[] cells) {
+        long state = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            state |= ((long) cells[cell]) << (cell * 4);
+        }
+        return state;
+    }
+
+    /**
+     * Gets the token of a cell of a packed board.
+     * @param state - Is the packed board.
+     * @param cell - Is the cell.
+     * @return the token of the cell, where 0 is the blank token.
+     */
+    private static int tokenAt(long state, int cell) {
+        return (int) ((state >>> (cell * 4)) & CELL_MASK);
+    }
+
+    /**
+     * Finds the blank cell of a packed board.
+     * @param state - Is the packed board.
+     * @param cellCount - Is the number of cells of the board.
+     * @return the cell of the blank token.
+     */
+    private static int blankOf(long state, int cellCount) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (tokenAt(state, cell) == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("The board has no blank token");
+    }
+
+    /**
+     * Moves the token of a cell to the blank cell of a packed board.
+     * @param state - Is the packed board.
+     * @param blank - Is the blank cell.
+     * @param cell - Is the cell of the token, next to the blank cell.
+     * @return the packed board after the movement.
+     */
+    private static long move(long state, int blank, int cell) {
+        long token = (state >>> (cell * 4)) & CELL_MASK;
+        return state ^ (token << (cell * 4)) ^ (token << (blank * 4));
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Inner classes
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The state of a bidirectional search: the depth of every board visited by each side, and the frontiers.
+     */
+    private class Search {
+
+        /**
+         * Represents the size of the board.
+         */
+        private final int size;
+
+        /**
+         * Represents the packed board to solve.
+         */
+        private final long start;
+
+        /**
+         * Represents the packed solution.
+         */
+        private final long goal;
+
+        /**
+         * Represents the monitor of the search.
+         */
+        private final SolverMonitor monitor;
+
+        /**
+         * Represents the depth of every board visited from the board to solve.
+         */
+        private final LongByteHashMap forward = new LongByteHashMap(1024);
+
+        /**
+         * Represents the depth of every board visited from the solution.
+         */
+        private final LongByteHashMap backward = new LongByteHashMap(1024);
+
+        /**
+         * Represents the boards where the sides met on optimal paths, all at the same depth from the start.
+         */
+        private final Frontier meetings = new Frontier();
+
+        /**
+         * Represents the length of the optimal solutions.
+         */
+        private int length;
+
+        /**
+         * Represents the number of boards expanded.
+         */
+        private long nodesExpanded;
+
+        /**
+         * Builds a search.
+         * @param size - Is the size of the board.
+         * @param start - Is the packed board to solve.
+         * @param goal - Is the packed solution.
+         * @param monitor - Is the monitor of the search.
+         */
+        private Search(int size, long start, long goal, SolverMonitor monitor) {
+            this.size = size;
+            this.start = start;
+            this.goal = goal;
+            this.monitor = monitor;
+        }
+
+        /**
+         * Expands the smaller frontier a layer at a time until the sides meet.
+         */
+        private void run() {
+            int cellCount = size * size;
+            forward.putIfAbsent(start, 0);
+            backward.putIfAbsent(goal, 0);
+            if (start == goal) {
+                meetings.add(start, blankOf(start, cellCount));
+                return;
+            }
+            Frontier forwardFrontier = new Frontier();
+            forwardFrontier.add(start, blankOf(start, cellCount));
+            Frontier backwardFrontier = new Frontier();
+            backwardFrontier.add(goal, blankOf(goal, cellCount));
+            int forwardDepth = 0;
+            int backwardDepth = 0;
+            while (true) {
+                if (forwardFrontier.size <= backwardFrontier.size) {
+                    forwardFrontier = expand(forwardFrontier, forwardDepth++, forward, backward);
+                } else {
+                    backwardFrontier = expand(backwardFrontier, backwardDepth++, backward, forward);
+                }
+                if (meetings.size > 0) {
+                    return;
+                }
+                monitor.iterationFinished(forwardDepth + backwardDepth, nodesExpanded);
+                if (forward.size() + backward.size() > maxStates) {
+                    throw new IllegalArgumentException("The puzzle needs more than " + maxStates
+                            + " boards for a bidirectional search");
+                }
+            }
+        }
+
+        /**
+         * Expands a whole layer of one side. The new boards found in the other side are kept as meetings, and when
+         * the layer ends only the ones on optimal paths remain.
+         * @param frontier - Is the layer to expand.
+         * @param depth - Is the depth of the layer from the root of its side.
+         * @param own - Is the map of the side being expanded.
+         * @param other - Is the map of the other side.
+         * @return the next layer of the side.
+         */
+        private Frontier expand(Frontier frontier, int depth, LongByteHashMap own, LongByteHashMap other) {
+            Frontier next = new Frontier();
+            int bestLength = Integer.MAX_VALUE;
+            for (int i = 0; i < frontier.size; i++) {
+                if (++nodesExpanded % CANCEL_CHECK_INTERVAL == 0 && monitor.isCancelled()) {
+                    throw new CancellationException("The search was cancelled");
+                }
+                long state = frontier.states[i];
+                int blank = frontier.blanks[i];
+                for (int direction = 0; direction < 4; direction++) {
+                    int cell = IdaStarSearch.neighbour(blank, size, direction);
+                    if (cell == -1) {
+                        continue;
+                    }
+                    long child = move(state, blank, cell);
+                    if (!own.putIfAbsent(child, depth + 1)) {
+                        continue;
+                    }
+                    next.add(child, cell);
+                    int otherDepth = other.get(child);
+                    if (otherDepth != LongByteHashMap.MISSING) {
+                        int pathLength = depth + 1 + otherDepth;
+                        if (pathLength < bestLength) {
+                            bestLength = pathLength;
+                            meetings.size = 0;
+                        }
+                        if (pathLength == bestLength) {
+                            meetings.add(child, cell);
+                        }
+                    }
+                }
+            }
+            length = bestLength;
+            return next;
+        }
+
+        /**
+         * Lists the optimal solutions, joining every shortest path from the start to a meeting with every shortest
+         * path from the meeting to the solution.
+         * @param maxSolutions - Is the maximum number of solutions.
+         * @return the tokens to move of every solution.
+         */
+        private List<int[]> solutions(int maxSolutions) {
+            List<int[]> solutions = new ArrayList<>();
+            if (start == goal) {
+                solutions.add(new int[0]);
+                return solutions;
+            }
+            for (int i = 0; i < meetings.size && solutions.size() < maxSolutions; i++) {
+                long meeting = meetings.states[i];
+                int forwardDepth = forward.get(meeting);
+                List<long[]> prefixes = new ArrayList<>();
+                long[] path = new long[length + 1];
+                collectPaths(forward, meeting, forwardDepth, path, forwardDepth, -1, prefixes, maxSolutions);
+                List<long[]> suffixes = new ArrayList<>();
+                collectPaths(backward, meeting, length - forwardDepth, path, forwardDepth, 1, suffixes,
+                        maxSolutions);
+                for (long[] prefix : prefixes) {
+                    for (long[] suffix : suffixes) {
+                        if (solutions.size() == maxSolutions) {
+                            return solutions;
+                        }
+                        long[] states = prefix.clone();
+                        System.arraycopy(suffix, forwardDepth, states, forwardDepth, length + 1 - forwardDepth);
+                        solutions.add(toTokens(states));
+                    }
+                }
+            }
+            return solutions;
+        }
+
+        /**
+         * Collects the shortest paths from a board to the root of a side, walking to the neighbours whose depth is
+         * one less.
+         * @param map - Is the map of the side.
+         * @param state - Is the current board.
+         * @param depth - Is the depth of the current board in the side.
+         * @param path - Is the path being built, indexed by the distance from the start.
+         * @param index - Is the position of the current board in the path.
+         * @param step - Is -1 to walk towards the start, or 1 to walk towards the solution.
+         * @param paths - Is where the complete paths are added.
+         * @param maxPaths - Is the maximum number of paths to collect.
+         */
+        private void collectPaths(LongByteHashMap map, long state, int depth, long[] path, int index, int step,
+                                  List<long[]> paths, int maxPaths) {
+            path[index] = state;
+            if (depth == 0) {
+                paths.add(path.clone());
+                return;
+            }
+            int blank = blankOf(state, size * size);
+            for (int direction = 0; direction < 4 && paths.size() < maxPaths; direction++) {
+                int cell = IdaStarSearch.neighbour(blank, size, direction);
+                if (cell != -1) {
+                    long neighbour = move(state, blank, cell);
+                    if (map.get(neighbour) == depth - 1) {
+                        collectPaths(map, neighbour, depth - 1, path, index + step, step, paths, maxPaths);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Converts a path of boards to the tokens moved between them.
+         * @param states - Are the packed boards of the path, from the start to the solution.
+         * @return the token moved at every step.
+         */
+        private int[] toTokens(long[] states) {
+            int[] tokens = new int[states.length - 1];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = tokenAt(states[i + 1], blankOf(states[i], size * size));
+            }
+            return tokens;
+        }
+    }
+
+    /**
+     * A growable list of packed boards with their blank cells.
+     */
+    private static class Frontier {
+
+        /**
+         * Represents the packed boards.
+         */
+        private long[] states = new long[16];
+
+        /**
+         * Represents the blank cell of every board.
+         */
+        private byte[] blanks = new byte[16];
+
+        /**
+         * Represents the number of boards.
+         */
+        private int size;
+
+        /**
+         * Adds a board.
+         * @param state - Is the packed board.
+         * @param blank - Is its blank cell.
+         */
+        private void add(long state, int blank) {
+            if (size == states.length) {
+                states = Arrays.copyOf(states, size * 2);
+                blanks = Arrays.copyOf(blanks, size * 2);
+            }
+            states[size] = state;
+            blanks[size++] = (byte) blank;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package model.solver;
+
+import model.Puzzle;
+import model.metrics.Metrics;
+
+/**
+ * A solver that remembers the boards it has solved. Every board of a solution found by the delegate solver is stored
+ * in a {@link SolutionCache} with its distance and next token, so solving any of them again, or a board met while
+ * playing one of those solutions, only follows the cached moves. A cached solution is replayed before it is returned,
+ * so a key shared by two big boards never yields a wrong solution.
+ * <p>
+ * The cached solutions are as good as the ones of the delegate: with an optimal delegate every stored distance is
+ * exact, with a suboptimal one it is only the length of a known solution, and the cache keeps serving that longer
+ * solution until the entry is overwritten. Mixed entries still yield valid solutions, since every cached chain is
+ * checked, but a cache holding suboptimal entries must not be shared with a solver expected to be optimal.
+ */
+public class CachingSolver implements Solver {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the solver used when a board is not in the cache.
+     */
+    private final Solver delegate;
+
+    /**
+     * Represents the cache of solved boards.
+     */
+    private final SolutionCache cache;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a caching solver with a cache of the default size.
+     * @param delegate - Is the solver used when a board is not in the cache. The cached solutions are optimal only if
+     * its solutions are.
+     */
+    public CachingSolver(Solver delegate) {
+        this(delegate, new SolutionCache());
+    }
+
+    /**
+     * Builds a caching solver.
+     * @param delegate - Is the solver used when a board is not in the cache. The cached solutions are optimal only if
+     * its solutions are.
+     * @param cache - Is the cache of solved boards. It can be shared with other solvers that are optimal, or not,
+     * like the delegate.
+     */
+    public CachingSolver(Solver delegate, SolutionCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the cache of solved boards.
+     * @return the cache used by the solver.
+     */
+    public SolutionCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle) throws IllegalArgumentException {
+        return solve(puzzle, new SolverMonitor());
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle, SolverMonitor monitor) throws IllegalArgumentException {
+        long start = System.nanoTime();
+        int[] cells = SearchBoards.cellsOf(puzzle);
+        int size = puzzle.getPuzzleSize();
+        int[] tokens = cachedSolution(cells, size);
+        if (tokens != null) {
+            return new Solution(tokens, 0, System.nanoTime() - start);
+        }
+        Solution solution = delegate.solve(puzzle, monitor);
+        if (Metrics.ENABLED) {
+            Metrics.recordSolve(solution.getNodesExpanded(), solution.getElapsedNanos());
+        }
+        store(cells, size, solution.getTokens());
+        return solution;
+    }
+
+    /**
+     * Follows the cached moves from a board to the solution.
+     * @param cells - Is the board to solve. It is modified.
+     * @param size - Is the size of the board.
+     * @return the tokens to move, or null if some board of the way is missing or the moves do not reach the solution.
+     */
+    private int[] cachedSolution(int[] cells, int size) {
+        int entry = cache.get(SolutionCache.keyOf(cells, size));
+        if (entry == SolutionCache.MISSING) {
+            return null;
+        }
+        int[] positions = SearchBoards.positionsOf(cells);
+        int[] tokens = new int[SolutionCache.distanceOf(entry)];
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0) {
+                entry = cache.get(SolutionCache.keyOf(cells, size));
+                if (entry == SolutionCache.MISSING || SolutionCache.distanceOf(entry) != tokens.length - i) {
+                    return null;
+                }
+            }
+            int token = SolutionCache.nextTokenOf(entry);
+            if (!move(cells, positions, size, token)) {
+                return null;
+            }
+            tokens[i] = token;
+        }
+        return IdaStarSearch.isSolved(positions) ? tokens : null;
+    }
+
+    /**
+     * Stores every board of a solution with its distance and next token, and the solved board itself.
+     * @param cells - Is the solved board. It is modified.
+     * @param size - Is the size of the board.
+     * @param tokens - Are the tokens of a solution of the board.
+     */
+    private void store(int[] cells, int size, int[] tokens) {
+        int[] positions = SearchBoards.positionsOf(cells);
+        for (int i = 0; i < tokens.length; i++) {
+            cache.put(SolutionCache.keyOf(cells, size), tokens.length - i, tokens[i]);
+            move(cells, positions, size, tokens[i]);
+        }
+        cache.put(SolutionCache.keyOf(cells, size), 0, 0);
+    }
+
+    /**
+     * Moves a token to the blank cell.
+     * @param cells - Is the token of every cell, where 0 is the blank token.
+     * @param positions - Is the cell of every token, where the position 0 is the one of the blank token.
+     * @param size - Is the size of the board.
+     * @param token - Is the token to move.
+     * @return true if the token was moved, false if it is not a token of the board or not next to the blank.
+     */
+    private static boolean move(int[] cells, int[] positions, int size, int token) {
+        if (token < 1 || token >= cells.length) {
+            return false;
+        }
+        int from = positions[token];
+        int blank = positions[0];
+        int rowDistance = Math.abs(from / size - blank / size);
+        int columnDistance = Math.abs(from % size - blank % size);
+        if (rowDistance + columnDistance != 1) {
+            return false;
+        }
+        cells[blank] = token;
+        cells[from] = 0;
+        positions[token] = blank;
+        positions[0] = from;
+        return true;
+    }
+}
@@ -0,0 +1,214 @@
+package model.solver;
+
+import model.Puzzle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The exact distance to the solution of every solvable 3x3 board, one byte per board. A board is indexed by a perfect
+ * hash: the cell of the blank token times the rank of the order of the other 8 tokens. The rank is the Lehmer code of
+ * that order without its last two digits, because the solvable boards are the ones with an even permutation, so the
+ * last digits are implied; the 181440 solvable boards take exactly 181440 entries.
+ * <p>
+ * The table is memory mapped from disk. Since it is exact, it works both as a perfect heuristic and as a solver that
+ * only follows the entries downhill, with a lookup per neighbour and no search at all.
+ */
+public class EightPuzzleTable implements Heuristic, Solver {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the size of the boards of the table.
+     */
+    public final static int SIZE = 3;
+
+    /**
+     * Represents the number of solvable 3x3 boards, which is the number of entries of the table.
+     */
+    public final static int STATE_COUNT = 181440;
+
+    /**
+     * Represents the name of the table file, relative to the database folder.
+     */
+    public final static String FILE_NAME = "3x3.dist";
+
+    /**
+     * Represents the first bytes of the table file.
+     */
+    final static int MAGIC = 0x38505A31;
+
+    /**
+     * Represents the length of the header of the table file.
+     */
+    final static int HEADER_LENGTH = 4;
+
+    /**
+     * Represents the number of entries for every cell of the blank token: the even permutations of 8 tokens.
+     */
+    private final static int ORDERS_PER_BLANK = STATE_COUNT / (SIZE * SIZE);
+
+    /**
+     * Represents the weight of every digit of the Lehmer code, (7 - i)! / 2, up to the sixth one.
+     */
+    private final static int[] DIGIT_WEIGHTS = {2520, 360, 60, 12, 3, 1};
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the distance of every board, indexed by {@link #rank}.
+     */
+    private final ByteBuffer table;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a table over the already loaded distances.
+     * @param table - Is the distance of every board, indexed by {@link #rank}.
+     * @throws IllegalArgumentException - If the table does not have an entry per solvable board.
+     */
+    public EightPuzzleTable(ByteBuffer table) throws IllegalArgumentException {
+        if (table.capacity() != STATE_COUNT) {
+            throw new IllegalArgumentException("The table must have " + STATE_COUNT + " entries");
+        }
+        this.table = table;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Opens the table saved in a folder.
+     * @param folderPath - Is the folder where the table is saved.
+     * @return the table, backed by the mapped file.
+     * @throws IOException - If there is no table in the folder or there are problems reading it.
+     */
+    public static EightPuzzleTable open(String folderPath) throws IOException {
+        File file = new File(folderPath, FILE_NAME);
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_LENGTH || header.getInt() != MAGIC) {
+                throw new IOException("The file " + file + " is not a 3x3 distance table");
+            }
+            if (channel.size() != HEADER_LENGTH + STATE_COUNT) {
+                throw new IOException("The file " + file + " is truncated");
+            }
+            return new EightPuzzleTable(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, STATE_COUNT));
+        }
+    }
+
+    /**
+     * Opens the table saved in a folder, generating it first if it does not exist yet.
+     * @param folderPath - Is the folder where the table is saved.
+     * @return the table, backed by the mapped file.
+     * @throws IOException - If there are problems reading or writing the table.
+     */
+    public static EightPuzzleTable openOrGenerate(String folderPath) throws IOException {
+        if (!new File(folderPath, FILE_NAME).exists()) {
+            EightPuzzleTableGenerator.generate(folderPath);
+        }
+        return open(folderPath);
+    }
+
+    /**
+     * Computes the index of a solvable board in the table.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+     * @return the index of the board, from 0 to {@link #STATE_COUNT} - 1.
+     */
+    static int rank(int[] cells) {
+        int blank = 0;
+        int used = 0;
+        int rank = 0;
+        int digit = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            int token = cells[cell];
+            if (token == 0) {
+                blank = cell;
+            } else {
+                if (digit < DIGIT_WEIGHTS.length) {
+                    int smaller = Integer.bitCount(used & ((1 << token) - 1));
+                    rank += (token - 1 - smaller) * DIGIT_WEIGHTS[digit];
+                }
+                used |= 1 << token;
+                digit++;
+            }
+        }
+        return blank * ORDERS_PER_BLANK + rank;
+    }
+
+    /**
+     * Gets the exact distance of a board to the solution.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token. It must be solvable.
+     * @return the number of movements of the optimal solutions of the board.
+     */
+    public int distance(int[] cells) {
+        return table.get(rank(cells)) & 0xFF;
+    }
+
+    @Override
+    public String getName() {
+        return "3x3 distance table";
+    }
+
+    @Override
+    public boolean supports(int size) {
+        return size == SIZE;
+    }
+
+    @Override
+    public int estimate(int[] cells, int[] positions, int size) {
+        return distance(cells);
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle) throws IllegalArgumentException {
+        long start = System.nanoTime();
+        if (puzzle.getPuzzleSize() != SIZE) {
+            throw new IllegalArgumentException("The distance table only supports 3x3 boards");
+        }
+        if (!puzzle.isSolvable()) {
+            throw new IllegalArgumentException("The puzzle has no solution");
+        }
+        int[] cells = SearchBoards.cellsOf(puzzle);
+        int blank = 0;
+        while (cells[blank] != 0) {
+            blank++;
+        }
+        int distance = distance(cells);
+        int[] tokens = new int[distance];
+        long lookups = 0;
+        for (int step = 0; step < tokens.length; step++) {
+            for (int direction = 0; direction < 4; direction++) {
+                int cell = IdaStarSearch.neighbour(blank, SIZE, direction);
+                if (cell == -1) {
+                    continue;
+                }
+                cells[blank] = cells[cell];
+                cells[cell] = 0;
+                lookups++;
+                if (distance(cells) == distance - 1) {
+                    tokens[step] = cells[blank];
+                    blank = cell;
+                    distance--;
+                    break;
+                }
+                cells[cell] = cells[blank];
+                cells[blank] = 0;
+            }
+        }
+        return new Solution(tokens, lookups, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,153 @@
+package model.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Builds the {@link EightPuzzleTable} with a breadth first search from the solution over every solvable 3x3 board.
+ * The boards of the queue are packed in longs with 4 bits per cell.
+ */
+public class EightPuzzleTableGenerator {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents an entry of the search that has not been reached yet.
+     */
+    private final static int UNVISITED = 0xFF;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private EightPuzzleTableGenerator() {
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Generates the table and saves it in a folder.
+     * @param folderPath - Is the folder where the table is saved. It is created if it does not exist.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public static void generate(String folderPath) throws IOException {
+        File folder = new File(folderPath);
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("The folder " + folderPath + " can not be created");
+        }
+        write(new File(folder, EightPuzzleTable.FILE_NAME), generateTable());
+    }
+
+    /**
+     * Builds the table in memory.
+     * @return the distance of every solvable board, indexed by {@link EightPuzzleTable#rank}.
+     */
+    static byte[] generateTable() {
+        int cellCount = EightPuzzleTable.SIZE * EightPuzzleTable.SIZE;
+        byte[] distances = new byte[EightPuzzleTable.STATE_COUNT];
+        Arrays.fill(distances, (byte) UNVISITED);
+        long[] queue = new long[EightPuzzleTable.STATE_COUNT];
+        int[] cells = new int[cellCount];
+        for (int cell = 0; cell < cellCount - 1; cell++) {
+            cells[cell] = cell + 1;
+        }
+        queue[0] = pack(cells);
+        distances[EightPuzzleTable.rank(cells)] = 0;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            unpack(queue[head++], cells);
+            int distance = distances[EightPuzzleTable.rank(cells)];
+            int blank = 0;
+            while (cells[blank] != 0) {
+                blank++;
+            }
+            for (int direction = 0; direction < 4; direction++) {
+                int cell = IdaStarSearch.neighbour(blank, EightPuzzleTable.SIZE, direction);
+                if (cell == -1) {
+                    continue;
+                }
+                cells[blank] = cells[cell];
+                cells[cell] = 0;
+                int rank = EightPuzzleTable.rank(cells);
+                if ((distances[rank] & 0xFF) == UNVISITED) {
+                    distances[rank] = (byte) (distance + 1);
+                    queue[tail++] = pack(cells);
+                }
+                cells[cell] = cells[blank];
+                cells[blank] = 0;
+            }
+        }
+        if (tail != EightPuzzleTable.STATE_COUNT) {
+            throw new IllegalStateException("The search reached " + tail + " boards");
+        }
+        return distances;
+    }
+
+    /**
+     * Packs a board in a long with 4 bits per cell.
+     * @param cells - Is the token of every cell, where 0 is the blank token.
+     * @return the packed board.
+     */
+    private static long pack(int[] cells) {
+        long state = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            state |= ((long) cells[cell]) << (cell * 4);
+        }
+        return state;
+    }
+
+    /**
+     * Unpacks a board packed with {@link #pack}.
+     * @param state - Is the packed board.
+     * @param cells - Is the array where the token of every cell is written.
+     */
+    private static void unpack(long state, int[] cells) {
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = (int) ((state >>> (cell * 4)) & 0xF);
+        }
+    }
+
+    /**
+     * Writes the table file: the magic number followed by the distances.
+     * @param file - Is the file to write.
+     * @param table - Is the distance of every board.
+     * @throws IOException - If there are problems writing the file.
+     */
+    private static void write(File file, byte[] table) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(EightPuzzleTable.HEADER_LENGTH);
+        header.putInt(EightPuzzleTable.MAGIC);
+        header.flip();
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw");
+             FileChannel channel = output.getChannel()) {
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ByteBuffer body = ByteBuffer.wrap(table);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * Generates the 3x3 distance table in the default folder.
+     * @param args - CLI arguments. Optionally, the folder where the table is saved.
+     * @throws IOException - If there are problems writing the file.
+     */
+    public static void main(String[] args) throws IOException {
+        String folderPath = args.length > 0 ? args[0] : PatternDatabase.DATABASE_FOLDER_PATH;
+        long start = System.nanoTime();
+        generate(folderPath);
+        System.out.println("3x3 distance table generated in " + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+}
@@ -0,0 +1,47 @@
+package model.solver;
+
+/**
+ * An admissible estimation of the number of movements left to reach the solution of a puzzle. The board is given as
+ * two arrays: the token of every cell (0 for the blank) and the cell of every token (index 0 for the blank). The
+ * solution is always the ordered board with the blank token in the last cell.
+ */
+public interface Heuristic {
+
+    /**
+     * Gets the name of the heuristic, used in reports.
+     * @return a short readable name of the heuristic.
+     */
+    String getName();
+
+    /**
+     * Checks if the heuristic can estimate boards of the specified size.
+     * @param size - Is the size of the board.
+     * @return true if the heuristic supports the size, false otherwise.
+     */
+    boolean supports(int size);
+
+    /**
+     * Estimates the number of movements left to solve the board.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+     * @param positions - Is the cell of every token, where the position 0 is the one of the blank token.
+     * @param size - Is the size of the board.
+     * @return a lower bound of the movements left to solve the board.
+     */
+    int estimate(int[] cells, int[] positions, int size);
+
+    /**
+     * Updates the estimation after a token was moved to the blank cell. The arrays are already updated when called.
+     * By default the board is estimated again from scratch.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+     * @param positions - Is the cell of every token, where the position 0 is the one of the blank token.
+     * @param size - Is the size of the board.
+     * @param previousEstimate - Is the estimation of the board before the movement.
+     * @param token - Is the token that was moved.
+     * @param from - Is the cell where the token was placed before the movement.
+     * @param to - Is the cell where the token is placed now.
+     * @return a lower bound of the movements left to solve the board.
+     */
+    default int update(int[] cells, int[] positions, int size, int previousEstimate, int token, int from, int to) {
+        return estimate(cells, positions, size);
+    }
+}
@@ -0,0 +1,217 @@
+package model.solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The bounded depth first search of a single iteration of IDA*. The board is changed in place and restored while
+ * backtracking, so no memory is allocated per expanded node. The search can be stopped from other threads through a
+ * shared flag, which is checked once per node.
+ */
+class IdaStarSearch {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the result of a search that reached the solution.
+     */
+    final static int FOUND = -1;
+
+    /**
+     * Represents the result of a search that was stopped before finishing.
+     */
+    final static int STOPPED = Integer.MAX_VALUE;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the heuristic used to prune the search.
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * Represents the size of the board.
+     */
+    private final int size;
+
+    /**
+     * Represents the token of every cell of the board.
+     */
+    private final int[] cells;
+
+    /**
+     * Represents the cell of every token of the board.
+     */
+    private final int[] positions;
+
+    /**
+     * Represents the tokens moved from the root to the current node.
+     */
+    private int[] path;
+
+    /**
+     * Represents the flag that stops the search when it is turned on.
+     */
+    private final AtomicBoolean stop;
+
+    /**
+     * Represents the cost bound of the current iteration.
+     */
+    private int bound;
+
+    /**
+     * Represents the number of movements of the found solution.
+     */
+    private int solutionLength;
+
+    /**
+     * Represents the number of nodes expanded by the search.
+     */
+    private long nodesExpanded;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a search over a board. The arrays are owned by the search from now on.
+     * @param heuristic - Is an admissible heuristic that supports the size of the board.
+     * @param size - Is the size of the board.
+     * @param cells - Is the token of every cell, where 0 is the blank token.
+     * @param positions - Is the cell of every token.
+     * @param path - Is the array where the moved tokens are written. It can already hold the movements to the root.
+     * @param stop - Is the flag that stops the search.
+     */
+    IdaStarSearch(Heuristic heuristic, int size, int[] cells, int[] positions, int[] path, AtomicBoolean stop) {
+        this.heuristic = heuristic;
+        this.size = size;
+        this.cells = cells;
+        this.positions = positions;
+        this.path = path;
+        this.stop = stop;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Changes the cost bound for the next search, making room in the path for a solution of that length.
+     * @param bound - Is the new cost bound.
+     */
+    void setBound(int bound) {
+        this.bound = bound;
+        if (path.length <= bound) {
+            int[] longerPath = new int[bound * 2 + 1];
+            System.arraycopy(path, 0, longerPath, 0, path.length);
+            path = longerPath;
+        }
+    }
+
+    /**
+     * Gets the tokens moved from the root to the found solution.
+     * @return a new array with the found solution.
+     */
+    int[] getSolution() {
+        int[] tokens = new int[solutionLength];
+        System.arraycopy(path, 0, tokens, 0, solutionLength);
+        return tokens;
+    }
+
+    /**
+     * Gets the number of nodes expanded by the search so far.
+     * @return the number of expanded nodes.
+     */
+    long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Searches the solution in depth, up to the current cost bound.
+     * @param depth - Is the number of movements made from the root.
+     * @param estimate - Is the heuristic estimation of the current board.
+     * @param previousBlank - Is the cell of the blank token before the last movement, to avoid undoing it.
+     * @return FOUND if the solution was reached, STOPPED if the search was stopped, or the smallest cost that
+     * exceeded the bound otherwise.
+     */
+    int search(int depth, int estimate, int previousBlank) {
+        if (stop.get()) {
+            return STOPPED;
+        }
+        nodesExpanded++;
+        int cost = depth + estimate;
+        if (cost > bound) {
+            return cost;
+        }
+        if (estimate == 0 && isSolved(positions)) {
+            solutionLength = depth;
+            return FOUND;
+        }
+
+        int minimum = STOPPED;
+        int blank = positions[0];
+        for (int direction = 0; direction < 4; direction++) {
+            int target = neighbour(blank, size, direction);
+            if (target == -1 || target == previousBlank) {
+                continue;
+            }
+
+            int token = cells[target];
+            cells[blank] = token;
+            cells[target] = 0;
+            positions[token] = blank;
+            positions[0] = target;
+            path[depth] = token;
+
+            int childEstimate = heuristic.update(cells, positions, size, estimate, token, target, blank);
+            int result = search(depth + 1, childEstimate, blank);
+            if (result == FOUND) {
+                return FOUND;
+            }
+
+            cells[target] = token;
+            cells[blank] = 0;
+            positions[token] = target;
+            positions[0] = blank;
+            if (result < minimum) {
+                minimum = result;
+            }
+        }
+        return minimum;
+    }
+
+    /**
+     * Gets the cell next to another one in the specified direction.
+     * @param cell - Is the starting cell.
+     * @param size - Is the size of the board.
+     * @param direction - Is 0 for up, 1 for right, 2 for down and 3 for left.
+     * @return the neighbour cell, or -1 if it is out of the board.
+     */
+    static int neighbour(int cell, int size, int direction) {
+        if (direction == 0) {
+            return cell >= size ? cell - size : -1;
+        } else if (direction == 1) {
+            return cell % size < size - 1 ? cell + 1 : -1;
+        } else if (direction == 2) {
+            return cell < size * (size - 1) ? cell + size : -1;
+        }
+        return cell % size > 0 ? cell - 1 : -1;
+    }
+
+    /**
+     * Checks if a board is the ordered solution.
+     * @param positions - Is the cell of every token.
+     * @return true if every token is in its goal cell, false otherwise.
+     */
+    static boolean isSolved(int[] positions) {
+        for (int token = 1; token < positions.length; token++) {
+            if (positions[token] != token - 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
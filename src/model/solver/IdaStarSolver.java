@@ -0,0 +1,89 @@
+package model.solver;
+
+import model.Puzzle;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * An optimal solver based on iterative deepening A*. Every iteration is a depth first search bounded by the cost
+ * estimated by the heuristic, so the memory used is linear in the length of the solution and no memory is allocated
+ * per expanded node.
+ */
+public class IdaStarSolver implements Solver {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the heuristic used to prune the search.
+     */
+    private final Heuristic heuristic;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a solver guided by the Manhattan distance plus linear conflicts.
+     */
+    public IdaStarSolver() {
+        this(new ManhattanLinearConflict());
+    }
+
+    /**
+     * Builds a solver guided by the specified heuristic.
+     * @param heuristic - Is an admissible heuristic, so the found solutions are optimal.
+     */
+    public IdaStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the heuristic used to prune the search.
+     * @return the heuristic of the solver.
+     */
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle) throws IllegalArgumentException {
+        return solve(puzzle, new SolverMonitor());
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle, SolverMonitor monitor) throws IllegalArgumentException {
+        long start = System.nanoTime();
+        int[] cells = SearchBoards.cellsOf(puzzle);
+        int[] positions = SearchBoards.positionsOf(cells);
+        int size = puzzle.getPuzzleBoard().length;
+        if (!heuristic.supports(size)) {
+            throw new IllegalArgumentException(heuristic.getName() + " does not support boards of size " + size);
+        }
+        if (!puzzle.isSolvable()) {
+            throw new IllegalArgumentException("The puzzle has no solution");
+        }
+
+        int estimate = heuristic.estimate(cells, positions, size);
+        IdaStarSearch search = new IdaStarSearch(heuristic, size, cells, positions, new int[0],
+                monitor.getCancelledFlag());
+        int bound = estimate;
+        search.setBound(bound);
+        int result = search.search(0, estimate, -1);
+        while (result != IdaStarSearch.FOUND) {
+            if (result == IdaStarSearch.STOPPED) {
+                throw new CancellationException("The search was cancelled");
+            }
+            bound = result;
+            monitor.iterationFinished(bound, search.getNodesExpanded());
+            search.setBound(bound);
+            result = search.search(0, estimate, -1);
+        }
+        return new Solution(search.getSolution(), search.getNodesExpanded(), System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,163 @@
+package model.solver;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from long keys to small unsigned values, from 0 to 255, stored in parallel primitive arrays with linear
+ * probing, so neither the keys nor the values are boxed. It takes 9 bytes per slot and grows by doubling when it is
+ * half full. The key 0 marks the empty slots, so it is kept apart.
+ */
+class LongByteHashMap {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents a missing key in a lookup.
+     */
+    final static int MISSING = -1;
+
+    /**
+     * Represents the minimum number of slots of a map.
+     */
+    private final static int MIN_CAPACITY = 16;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the key of every slot, or 0 if the slot is empty.
+     */
+    private long[] keys;
+
+    /**
+     * Represents the value of every slot.
+     */
+    private byte[] values;
+
+    /**
+     * Represents the mask that turns a hash into a slot. The number of slots is a power of two.
+     */
+    private int mask;
+
+    /**
+     * Represents the number of keys in the map.
+     */
+    private int size;
+
+    /**
+     * Represents the value of the key 0, or {@link #MISSING} if it is not in the map.
+     */
+    private int zeroValue = MISSING;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds an empty map.
+     * @param expectedSize - Is the number of keys expected, so the map does not grow until it is reached.
+     */
+    LongByteHashMap(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+        keys = new long[capacity];
+        values = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the value of a key.
+     * @param key - Is the key to find.
+     * @return the value of the key, from 0 to 255, or {@link #MISSING} if the key is not in the map.
+     */
+    int get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int slot = slotOf(key);
+        return keys[slot] == 0 ? MISSING : values[slot] & 0xFF;
+    }
+
+    /**
+     * Adds a key with its value, unless the key is already in the map.
+     * @param key - Is the key to add.
+     * @param value - Is the value of the key, from 0 to 255.
+     * @return true if the key was added, false if it was already in the map, in which case its value is kept.
+     */
+    boolean putIfAbsent(long key, int value) {
+        if (key == 0) {
+            if (zeroValue != MISSING) {
+                return false;
+            }
+            zeroValue = value;
+            size++;
+            return true;
+        }
+        int slot = slotOf(key);
+        if (keys[slot] != 0) {
+            return false;
+        }
+        keys[slot] = key;
+        values[slot] = (byte) value;
+        size++;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     * @return the number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every key of the map, keeping its memory.
+     */
+    void clear() {
+        Arrays.fill(keys, 0);
+        zeroValue = MISSING;
+        size = 0;
+    }
+
+    /**
+     * Finds the slot of a key that is not 0: the one that holds it, or the empty slot where it would be added.
+     * @param key - Is the key to find.
+     * @return the slot of the key.
+     */
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the number of slots, adding the keys again.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new byte[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                int newSlot = slotOf(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+}
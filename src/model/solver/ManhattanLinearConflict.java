@@ -0,0 +1,143 @@
+package model.solver;
+
+/**
+ * The Manhattan distance of every token to its goal cell, plus two movements for every token that has to leave its
+ * goal row (or column) to let other tokens of the same line pass. The heuristic keeps no state, so a single instance
+ * can be shared by several searches.
+ */
+public class ManhattanLinearConflict implements Heuristic {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the biggest board size supported. The conflicts of a line are resolved with 4 bits per token.
+     */
+    public final static int MAX_SIZE = 16;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String getName() {
+        return "Manhattan + linear conflict";
+    }
+
+    @Override
+    public boolean supports(int size) {
+        return size >= 2 && size <= MAX_SIZE;
+    }
+
+    @Override
+    public int estimate(int[] cells, int[] positions, int size) {
+        int estimate = 0;
+        for (int token = 1; token < positions.length; token++) {
+            estimate += distance(positions[token], token - 1, size);
+        }
+        for (int line = 0; line < size; line++) {
+            estimate += rowConflicts(cells, size, line) + columnConflicts(cells, size, line);
+        }
+        return estimate;
+    }
+
+    @Override
+    public int update(int[] cells, int[] positions, int size, int previousEstimate, int token, int from, int to) {
+        int goal = token - 1;
+        int estimate = previousEstimate + distance(to, goal, size) - distance(from, goal, size);
+
+        // Only the goal line of the token can change its conflicts, and only if the token enters or leaves it.
+        int fromRow = from / size;
+        int toRow = to / size;
+        int goalLine;
+        boolean vertical = fromRow != toRow;
+        if (vertical) {
+            goalLine = goal / size;
+            if (goalLine != fromRow && goalLine != toRow) {
+                return estimate;
+            }
+        } else {
+            goalLine = goal % size;
+            if (goalLine != from % size && goalLine != to % size) {
+                return estimate;
+            }
+        }
+
+        cells[from] = token;
+        cells[to] = 0;
+        int before = vertical ? rowConflicts(cells, size, goalLine) : columnConflicts(cells, size, goalLine);
+        cells[from] = 0;
+        cells[to] = token;
+        int after = vertical ? rowConflicts(cells, size, goalLine) : columnConflicts(cells, size, goalLine);
+        return estimate + after - before;
+    }
+
+    /**
+     * Computes the Manhattan distance between a cell and the goal cell of a token.
+     * @param cell - Is the current cell of the token.
+     * @param goal - Is the goal cell of the token.
+     * @param size - Is the size of the board.
+     * @return the number of rows plus the number of columns between both cells.
+     */
+    static int distance(int cell, int goal, int size) {
+        return Math.abs(cell / size - goal / size) + Math.abs(cell % size - goal % size);
+    }
+
+    /**
+     * Computes the extra movements required by the tokens of a row that are in their goal row but in reversed order.
+     * @param cells - Is the token of every cell, where 0 is the blank token.
+     * @param size - Is the size of the board.
+     * @param row - Is the row to check.
+     * @return two movements for every token that has to leave the row.
+     */
+    static int rowConflicts(int[] cells, int size, int row) {
+        return lineConflicts(cells, size, row, row * size, 1, true);
+    }
+
+    /**
+     * Computes the extra movements required by the tokens of a column that are in their goal column but in reversed
+     * order.
+     * @param cells - Is the token of every cell, where 0 is the blank token.
+     * @param size - Is the size of the board.
+     * @param column - Is the column to check.
+     * @return two movements for every token that has to leave the column.
+     */
+    static int columnConflicts(int[] cells, int size, int column) {
+        return lineConflicts(cells, size, column, column, size, false);
+    }
+
+    /**
+     * Computes the extra movements required by a line. The tokens that can stay are the longest ordered subsequence
+     * of the tokens that belong to the line, found with patience sorting. The top of every pile is kept in 4 bits of
+     * a long, so no memory is allocated.
+     * @param cells - Is the token of every cell, where 0 is the blank token.
+     * @param size - Is the size of the board.
+     * @param line - Is the row or column to check.
+     * @param first - Is the first cell of the line.
+     * @param step - Is the distance between two consecutive cells of the line.
+     * @param row - Is true if the line is a row, false if it is a column.
+     * @return two movements for every token that has to leave the line.
+     */
+    private static int lineConflicts(int[] cells, int size, int line, int first, int step, boolean row) {
+        long piles = 0;
+        int pileCount = 0;
+        int tokens = 0;
+        for (int k = 0, cell = first; k < size; k++, cell += step) {
+            int goal = cells[cell] - 1;
+            if (goal >= 0 && (row ? goal / size : goal % size) == line) {
+                int value = row ? goal % size : goal / size;
+                int pile = 0;
+                while (pile < pileCount && ((piles >>> (pile * 4)) & 0xF) < value) {
+                    pile++;
+                }
+                piles = (piles & ~(0xFL << (pile * 4))) | ((long) value << (pile * 4));
+                if (pile == pileCount) {
+                    pileCount++;
+                }
+                tokens++;
+            }
+        }
+        return 2 * (tokens - pileCount);
+    }
+}
@@ -0,0 +1,319 @@
+package model.solver;
+
+import model.Puzzle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An optimal solver that runs every IDA* iteration on a fork-join pool. The first levels of the search tree are split
+ * into tasks, one per child, so idle workers steal the subtrees left by the busy ones. Below the split depth every
+ * task runs the sequential search on its own copy of the board. The workers share the next cost bound and the found
+ * solution through atomics: any solution found within the bound of an iteration is optimal, so the first one found
+ * stops every other task. A cancelled monitor stops the tasks the same way, as soon as each of them starts.
+ */
+public class ParallelIdaStarSolver implements Solver {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the default depth of the search tree up to which the nodes are split into tasks.
+     */
+    public final static int DEFAULT_SPLIT_DEPTH = 8;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the heuristic used to prune the search.
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * Represents the pool where the tasks of the search run.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Represents the depth of the search tree up to which the nodes are split into tasks.
+     */
+    private final int splitDepth;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a parallel solver guided by the Manhattan distance plus linear conflicts, on the common pool.
+     */
+    public ParallelIdaStarSolver() {
+        this(new ManhattanLinearConflict(), ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Builds a parallel solver.
+     * @param heuristic - Is an admissible heuristic, so the found solutions are optimal. It must be thread safe.
+     * @param pool - Is the pool where the tasks of the search run.
+     * @param splitDepth - Is the depth of the search tree up to which the nodes are split into tasks.
+     */
+    public ParallelIdaStarSolver(Heuristic heuristic, ForkJoinPool pool, int splitDepth) {
+        this.heuristic = heuristic;
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the number of workers of the pool used by the solver.
+     * @return the parallelism of the pool.
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle) throws IllegalArgumentException {
+        return solve(puzzle, new SolverMonitor());
+    }
+
+    @Override
+    public Solution solve(Puzzle puzzle, SolverMonitor monitor) throws IllegalArgumentException {
+        long start = System.nanoTime();
+        int[] cells = SearchBoards.cellsOf(puzzle);
+        int[] positions = SearchBoards.positionsOf(cells);
+        int size = puzzle.getPuzzleBoard().length;
+        if (!heuristic.supports(size)) {
+            throw new IllegalArgumentException(heuristic.getName() + " does not support boards of size " + size);
+        }
+        if (!puzzle.isSolvable()) {
+            throw new IllegalArgumentException("The puzzle has no solution");
+        }
+
+        int estimate = heuristic.estimate(cells, positions, size);
+        Iteration iteration = new Iteration(size, estimate, monitor);
+        while (true) {
+            pool.invoke(new SearchTask(iteration, cells.clone(), positions.clone(),
+                    new int[iteration.bound + 1], 0, estimate, -1));
+            int[] solution = iteration.solution.get();
+            if (solution != null) {
+                return new Solution(solution, iteration.nodesExpanded.sum(), System.nanoTime() - start);
+            }
+            if (monitor.isCancelled()) {
+                throw new CancellationException("The search was cancelled");
+            }
+            iteration = iteration.next();
+            monitor.iterationFinished(iteration.bound, iteration.nodesExpanded.sum());
+        }
+    }
+
+    /**
+     * Compares the parallel solver with the sequential one over a game file and reports the speedup. Every solver
+     * runs twice and only the second run is reported.
+     * @param args - CLI arguments: the game file to solve and, optionally, the number of workers.
+     * @throws IOException - If there are problems reading the game file.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ParallelIdaStarSolver <game file> [workers]");
+            return;
+        }
+        Puzzle puzzle = new Puzzle(args[0]);
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            IdaStarSolver sequentialSolver = new IdaStarSolver();
+            ParallelIdaStarSolver parallelSolver = new ParallelIdaStarSolver(new ManhattanLinearConflict(), pool,
+                    DEFAULT_SPLIT_DEPTH);
+            // The first runs only warm up the JIT, so both paths are measured compiled.
+            sequentialSolver.solve(puzzle);
+            parallelSolver.solve(puzzle);
+            Solution sequential = sequentialSolver.solve(puzzle);
+            Solution parallel = parallelSolver.solve(puzzle);
+            System.out.println("Sequential: " + sequential);
+            System.out.println("Parallel (" + workers + " workers): " + parallel);
+            System.out.printf("Speedup: %.2fx%n", (double) sequential.getElapsedNanos() / parallel.getElapsedNanos());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Inner classes
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The state shared by every task of an IDA* iteration.
+     */
+    private class Iteration {
+
+        /**
+         * Represents the size of the board.
+         */
+        final int size;
+
+        /**
+         * Represents the cost bound of the iteration.
+         */
+        final int bound;
+
+        /**
+         * Represents the smallest cost that exceeded the bound, which becomes the bound of the next iteration.
+         */
+        final AtomicInteger nextBound = new AtomicInteger(Integer.MAX_VALUE);
+
+        /**
+         * Represents the monitor of the search, polled by every task.
+         */
+        final SolverMonitor monitor;
+
+        /**
+         * Represents the flag that stops every task once a solution is found or the search is cancelled.
+         */
+        final AtomicBoolean found = new AtomicBoolean();
+
+        /**
+         * Represents the first solution found.
+         */
+        final AtomicReference<int[]> solution = new AtomicReference<>();
+
+        /**
+         * Represents the nodes expanded so far, by every iteration.
+         */
+        final LongAdder nodesExpanded;
+
+        Iteration(int size, int bound, SolverMonitor monitor) {
+            this(size, bound, monitor, new LongAdder());
+        }
+
+        private Iteration(int size, int bound, SolverMonitor monitor, LongAdder nodesExpanded) {
+            this.size = size;
+            this.bound = bound;
+            this.monitor = monitor;
+            this.nodesExpanded = nodesExpanded;
+        }
+
+        Iteration next() {
+            return new Iteration(size, nextBound.get(), monitor, nodesExpanded);
+        }
+
+        boolean stopped() {
+            if (monitor.isCancelled()) {
+                found.set(true);
+            }
+            return found.get();
+        }
+
+        void exceeded(int cost) {
+            nextBound.accumulateAndGet(cost, Math::min);
+        }
+
+        void solved(int[] tokens) {
+            if (found.compareAndSet(false, true)) {
+                solution.set(tokens);
+            }
+        }
+    }
+
+    /**
+     * A subtree of the search. Above the split depth the children are forked as new tasks, below it the subtree is
+     * searched sequentially.
+     */
+    private class SearchTask extends RecursiveAction {
+
+        private final static long serialVersionUID = 1L;
+
+        private final Iteration iteration;
+
+        private final int[] cells;
+
+        private final int[] positions;
+
+        private final int[] path;
+
+        private final int depth;
+
+        private final int estimate;
+
+        private final int previousBlank;
+
+        SearchTask(Iteration iteration, int[] cells, int[] positions, int[] path, int depth, int estimate,
+                   int previousBlank) {
+            this.iteration = iteration;
+            this.cells = cells;
+            this.positions = positions;
+            this.path = path;
+            this.depth = depth;
+            this.estimate = estimate;
+            this.previousBlank = previousBlank;
+        }
+
+        @Override
+        protected void compute() {
+            if (iteration.stopped()) {
+                return;
+            }
+            int size = iteration.size;
+            if (depth >= splitDepth) {
+                IdaStarSearch search = new IdaStarSearch(heuristic, size, cells, positions, path, iteration.found);
+                search.setBound(iteration.bound);
+                int result = search.search(depth, estimate, previousBlank);
+                iteration.nodesExpanded.add(search.getNodesExpanded());
+                if (result == IdaStarSearch.FOUND) {
+                    iteration.solved(search.getSolution());
+                } else if (result != IdaStarSearch.STOPPED) {
+                    iteration.exceeded(result);
+                }
+                return;
+            }
+
+            iteration.nodesExpanded.increment();
+            int cost = depth + estimate;
+            if (cost > iteration.bound) {
+                iteration.exceeded(cost);
+                return;
+            }
+            if (estimate == 0 && IdaStarSearch.isSolved(positions)) {
+                int[] tokens = new int[depth];
+                System.arraycopy(path, 0, tokens, 0, depth);
+                iteration.solved(tokens);
+                return;
+            }
+
+            List<SearchTask> children = new ArrayList<>(4);
+            int blank = positions[0];
+            for (int direction = 0; direction < 4; direction++) {
+                int target = IdaStarSearch.neighbour(blank, size, direction);
+                if (target == -1 || target == previousBlank) {
+                    continue;
+                }
+                int[] childCells = cells.clone();
+                int[] childPositions = positions.clone();
+                int[] childPath = path.clone();
+                int token = childCells[target];
+                childCells[blank] = token;
+                childCells[target] = 0;
+                childPositions[token] = blank;
+                childPositions[0] = target;
+                childPath[depth] = token;
+                int childEstimate = heuristic.update(childCells, childPositions, size, estimate, token, target, blank);
+                children.add(new SearchTask(iteration, childCells, childPositions, childPath, depth + 1,
+                        childEstimate, blank));
+            }
+            invokeAll(children);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package model.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * An additive heuristic made of disjoint pattern databases. Every pattern is a group of tokens with a table that
+ * holds the exact number of movements of those tokens needed to place them, for every combination of their cells.
+ * The tables are memory mapped from disk, so opening them is almost instant and their pages are shared by every
+ * process that maps the same files.
+ */
+public class PatternDatabase implements Heuristic {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the path to the default folder where the pattern databases are saved.
+     */
+    public final static String DATABASE_FOLDER_PATH = "./databases/";
+
+    /**
+     * Represents the extension of the pattern database files.
+     */
+    public final static String DATABASE_EXTENSION = ".pdb";
+
+    /**
+     * Represents the first bytes of every pattern database file.
+     */
+    final static int MAGIC = 0x50444231;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the size of the boards that the databases can estimate.
+     */
+    private final int size;
+
+    /**
+     * Represents the tokens of every pattern.
+     */
+    private final int[][] patterns;
+
+    /**
+     * Represents the mapped table of every pattern.
+     */
+    private final ByteBuffer[] tables;
+
+    /**
+     * Represents the pattern that contains every token.
+     */
+    private final int[] patternOfToken;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a pattern database heuristic with the already loaded tables.
+     * @param size - Is the size of the boards that the databases can estimate.
+     * @param patterns - Are the tokens of every pattern. Every token must belong to exactly one pattern.
+     * @param tables - Is the table of every pattern, indexed by {@link #rank}.
+     * @throws IllegalArgumentException - If the patterns are not a partition of the tokens.
+     */
+    public PatternDatabase(int size, int[][] patterns, ByteBuffer[] tables) throws IllegalArgumentException {
+        this.size = size;
+        this.patterns = patterns;
+        this.tables = tables;
+        patternOfToken = new int[size * size];
+        Arrays.fill(patternOfToken, -1);
+        for (int pattern = 0; pattern < patterns.length; pattern++) {
+            for (int token : patterns[pattern]) {
+                if (token < 1 || token >= patternOfToken.length || patternOfToken[token] != -1) {
+                    throw new IllegalArgumentException("The patterns are not disjoint or have invalid tokens");
+                }
+                patternOfToken[token] = pattern;
+            }
+        }
+        for (int token = 1; token < patternOfToken.length; token++) {
+            if (patternOfToken[token] == -1) {
+                throw new IllegalArgumentException("The token " + token + " does not belong to any pattern");
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Opens the pattern databases of the specified size saved in a folder. The files are named
+     * {@code <size>x<size>-<pattern>.pdb}, starting from the pattern 0.
+     * @param folderPath - Is the folder where the databases are saved.
+     * @param size - Is the size of the boards to estimate.
+     * @return the heuristic backed by the mapped tables.
+     * @throws IOException - If there are no databases for the size or there are problems reading them.
+     */
+    public static PatternDatabase open(String folderPath, int size) throws IOException {
+        int count = 0;
+        while (new File(folderPath, fileName(size, count)).exists()) {
+            count++;
+        }
+        if (count == 0) {
+            throw new IOException("There are no pattern databases for " + size + "x" + size + " in " + folderPath);
+        }
+        int[][] patterns = new int[count][];
+        ByteBuffer[] tables = new ByteBuffer[count];
+        for (int pattern = 0; pattern < count; pattern++) {
+            File file = new File(folderPath, fileName(size, pattern));
+            try (RandomAccessFile input = new RandomAccessFile(file, "r");
+                 FileChannel channel = input.getChannel()) {
+                ByteBuffer header = ByteBuffer.allocate(6);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < 6 || header.getInt() != MAGIC || header.get() != size) {
+                    throw new IOException("The file " + file + " is not a pattern database of size " + size);
+                }
+                int tokenCount = header.get();
+                ByteBuffer tokens = ByteBuffer.allocate(tokenCount);
+                channel.read(tokens, 6);
+                patterns[pattern] = new int[tokenCount];
+                for (int i = 0; i < tokenCount; i++) {
+                    patterns[pattern][i] = tokens.get(i);
+                }
+                long offset = 6 + tokenCount;
+                long tableLength = tableLength(size * size, tokenCount);
+                if (channel.size() != offset + tableLength) {
+                    throw new IOException("The file " + file + " is truncated");
+                }
+                MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, offset, tableLength);
+                tables[pattern] = table;
+            }
+        }
+        return new PatternDatabase(size, patterns, tables);
+    }
+
+    /**
+     * Opens the pattern databases of the specified size, generating them first with the default patterns if they
+     * do not exist yet. They are generated again if the file of any pattern is missing or can not be opened, as left
+     * by an interrupted generation.
+     * @param folderPath - Is the folder where the databases are saved.
+     * @param size - Is the size of the boards to estimate.
+     * @return the heuristic backed by the mapped tables.
+     * @throws IOException - If there are problems reading or writing the databases.
+     * @throws IllegalArgumentException - If there are no default patterns for the size.
+     */
+    public static PatternDatabase openOrGenerate(String folderPath, int size) throws IOException {
+        int[][] patterns = PatternDatabaseGenerator.defaultPatterns(size);
+        boolean complete = true;
+        for (int pattern = 0; pattern < patterns.length; pattern++) {
+            complete &= new File(folderPath, fileName(size, pattern)).isFile();
+        }
+        if (complete) {
+            try {
+                return open(folderPath, size);
+            } catch (IOException e) {
+                // A file has a bad header or is truncated, so the databases are generated again.
+            }
+        }
+        PatternDatabaseGenerator.generate(folderPath, size, patterns);
+        return open(folderPath, size);
+    }
+
+    /**
+     * Gets the name of the file of a pattern database.
+     * @param size - Is the size of the boards.
+     * @param pattern - Is the number of the pattern.
+     * @return the file name, relative to the database folder.
+     */
+    static String fileName(int size, int pattern) {
+        return size + "x" + size + "-" + pattern + DATABASE_EXTENSION;
+    }
+
+    /**
+     * Computes the number of entries of a table: the ways to place the tokens of a pattern in the cells.
+     * @param cellCount - Is the number of cells of the board.
+     * @param tokenCount - Is the number of tokens of the pattern.
+     * @return the number of entries of the table.
+     */
+    static long tableLength(int cellCount, int tokenCount) {
+        long length = 1;
+        for (int i = 0; i < tokenCount; i++) {
+            length *= cellCount - i;
+        }
+        return length;
+    }
+
+    /**
+     * Computes the index in a table of the cells of the tokens of a pattern, as the rank of a partial permutation.
+     * @param positions - Is the cell of every token.
+     * @param pattern - Are the tokens of the pattern.
+     * @param cellCount - Is the number of cells of the board.
+     * @return the index of the entry in the table of the pattern.
+     */
+    static int rank(int[] positions, int[] pattern, int cellCount) {
+        long used = 0;
+        int rank = 0;
+        for (int i = 0; i < pattern.length; i++) {
+            int cell = positions[pattern[i]];
+            int free = cell - Long.bitCount(used & ((1L << cell) - 1));
+            rank = rank * (cellCount - i) + free;
+            used |= 1L << cell;
+        }
+        return rank;
+    }
+
+    /**
+     * Gets the tokens of every pattern.
+     * @return an array with the tokens of every pattern.
+     */
+    public int[][] getPatterns() {
+        return patterns;
+    }
+
+    @Override
+    public String getName() {
+        StringBuilder name = new StringBuilder("Pattern database ");
+        for (int pattern = 0; pattern < patterns.length; pattern++) {
+            name.append(pattern == 0 ? "" : "-").append(patterns[pattern].length);
+        }
+        return name.toString();
+    }
+
+    @Override
+    public boolean supports(int size) {
+        return size == this.size;
+    }
+
+    @Override
+    public int estimate(int[] cells, int[] positions, int size) {
+        int estimate = 0;
+        for (int pattern = 0; pattern < patterns.length; pattern++) {
+            estimate += lookup(positions, pattern);
+        }
+        return estimate;
+    }
+
+    @Override
+    public int update(int[] cells, int[] positions, int size, int previousEstimate, int token, int from, int to) {
+        // Only the pattern of the moved token changes, so its old entry is replaced by the new one.
+        int pattern = patternOfToken[token];
+        int after = lookup(positions, pattern);
+        positions[token] = from;
+        int before = lookup(positions, pattern);
+        positions[token] = to;
+        return previousEstimate - before + after;
+    }
+
+    /**
+     * Reads the entry of a pattern for the current cells of its tokens.
+     * @param positions - Is the cell of every token.
+     * @param pattern - Is the number of the pattern.
+     * @return the movements needed to place the tokens of the pattern.
+     */
+    private int lookup(int[] positions, int pattern) {
+        return tables[pattern].get(rank(positions, patterns[pattern], size * size)) & 0xFF;
+    }
+}
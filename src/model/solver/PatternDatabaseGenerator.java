@@ -0,0 +1,280 @@
+package model.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Builds the tables of additive pattern databases with a breadth first search from the solution. Only the movements
+ * of the tokens of the pattern are counted, the movements of the blank token over the other cells are free, so the
+ * tables of disjoint patterns can be added without losing admissibility.
+ */
+public class PatternDatabaseGenerator {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents an entry of the search that has not been reached yet.
+     */
+    private final static int UNVISITED = 0xFF;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private PatternDatabaseGenerator() {
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the default partition of the tokens for a board size: 4-4 for the 3x3 board and 6-6-3 for the 4x4 board.
+     * @param size - Is the size of the board.
+     * @return the tokens of every pattern.
+     * @throws IllegalArgumentException - If there is no default partition for the size.
+     */
+    public static int[][] defaultPatterns(int size) throws IllegalArgumentException {
+        if (size == 3) {
+            return new int[][] {{1, 2, 3, 4}, {5, 6, 7, 8}};
+        } else if (size == 4) {
+            return new int[][] {{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+        }
+        throw new IllegalArgumentException("There is no default pattern partition for size " + size);
+    }
+
+    /**
+     * Generates the tables of every pattern and saves them in a folder, one file per pattern.
+     * @param folderPath - Is the folder where the databases are saved. It is created if it does not exist.
+     * @param size - Is the size of the board.
+     * @param patterns - Are the tokens of every pattern. Every token must belong to exactly one pattern.
+     * @throws IOException - If there are problems writing the files.
+     */
+    public static void generate(String folderPath, int size, int[][] patterns) throws IOException {
+        File folder = new File(folderPath);
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("The folder " + folderPath + " can not be created");
+        }
+        for (int pattern = 0; pattern < patterns.length; pattern++) {
+            byte[] table = generateTable(size, patterns[pattern]);
+            write(new File(folder, PatternDatabase.fileName(size, pattern)), size, patterns[pattern], table);
+        }
+    }
+
+    /**
+     * Builds the table of a single pattern. The search runs over the cells of the pattern tokens plus the cell of the
+     * blank token, layer by layer, and the free movements of the blank are expanded in the same layer.
+     * @param size - Is the size of the board.
+     * @param pattern - Are the tokens of the pattern.
+     * @return the movements needed for every entry, indexed by {@link PatternDatabase#rank}.
+     */
+    static byte[] generateTable(int size, int[] pattern) {
+        int cellCount = size * size;
+        long length = PatternDatabase.tableLength(cellCount, pattern.length);
+        if (length * cellCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The pattern is too big to be generated");
+        }
+        byte[] distances = new byte[(int) length * cellCount];
+        Arrays.fill(distances, (byte) UNVISITED);
+
+        int[] positions = new int[cellCount];
+        int[] digits = new int[pattern.length];
+        for (int token : pattern) {
+            positions[token] = token - 1;
+        }
+        int start = PatternDatabase.rank(positions, pattern, cellCount) * cellCount + cellCount - 1;
+        distances[start] = 0;
+        IntQueue current = new IntQueue();
+        current.add(start);
+
+        for (int depth = 0; current.size() > 0; depth++) {
+            IntQueue next = new IntQueue();
+            for (int i = 0; i < current.size(); i++) {
+                int state = current.get(i);
+                if ((distances[state] & 0xFF) != depth) {
+                    continue;
+                }
+                int rank = state / cellCount;
+                int blank = state % cellCount;
+                long used = unrank(rank, pattern, cellCount, positions, digits);
+                int row = blank / size;
+                int column = blank % size;
+                for (int direction = 0; direction < 4; direction++) {
+                    int target;
+                    if (direction == 0) {
+                        target = row > 0 ? blank - size : -1;
+                    } else if (direction == 1) {
+                        target = column < size - 1 ? blank + 1 : -1;
+                    } else if (direction == 2) {
+                        target = row < size - 1 ? blank + size : -1;
+                    } else {
+                        target = column > 0 ? blank - 1 : -1;
+                    }
+                    if (target == -1) {
+                        continue;
+                    }
+                    if ((used & (1L << target)) == 0) {
+                        int child = rank * cellCount + target;
+                        int distance = distances[child] & 0xFF;
+                        if (distance == UNVISITED || distance > depth) {
+                            distances[child] = (byte) depth;
+                            current.add(child);
+                        }
+                    } else {
+                        int token = tokenAt(positions, pattern, target);
+                        positions[token] = blank;
+                        int child = PatternDatabase.rank(positions, pattern, cellCount) * cellCount + target;
+                        positions[token] = target;
+                        if ((distances[child] & 0xFF) == UNVISITED) {
+                            distances[child] = (byte) (depth + 1);
+                            next.add(child);
+                        }
+                    }
+                }
+            }
+            current = next;
+        }
+
+        byte[] table = new byte[(int) length];
+        for (int rank = 0; rank < table.length; rank++) {
+            int minimum = UNVISITED;
+            for (int blank = 0; blank < cellCount; blank++) {
+                minimum = Math.min(minimum, distances[rank * cellCount + blank] & 0xFF);
+            }
+            table[rank] = (byte) minimum;
+        }
+        return table;
+    }
+
+    /**
+     * Restores the cells of the tokens of a pattern from the index of its entry.
+     * @param rank - Is the index of the entry.
+     * @param pattern - Are the tokens of the pattern.
+     * @param cellCount - Is the number of cells of the board.
+     * @param positions - Is the array where the cell of every token of the pattern is written.
+     * @param free - Is a scratch array, as long as the pattern, for the digits of the index.
+     * @return a mask with the cells used by the tokens of the pattern.
+     */
+    private static long unrank(int rank, int[] pattern, int cellCount, int[] positions, int[] free) {
+        for (int i = pattern.length - 1; i >= 0; i--) {
+            int radix = cellCount - i;
+            free[i] = rank % radix;
+            rank /= radix;
+        }
+        long used = 0;
+        for (int i = 0; i < pattern.length; i++) {
+            int cell = -1;
+            for (int skipped = -1; skipped < free[i]; ) {
+                cell++;
+                if ((used & (1L << cell)) == 0) {
+                    skipped++;
+                }
+            }
+            positions[pattern[i]] = cell;
+            used |= 1L << cell;
+        }
+        return used;
+    }
+
+    /**
+     * Finds the token of a pattern placed in a cell.
+     * @param positions - Is the cell of every token of the pattern.
+     * @param pattern - Are the tokens of the pattern.
+     * @param cell - Is a cell used by the pattern.
+     * @return the token placed in the cell.
+     */
+    private static int tokenAt(int[] positions, int[] pattern, int cell) {
+        for (int token : pattern) {
+            if (positions[token] == cell) {
+                return token;
+            }
+        }
+        throw new IllegalStateException("There is no token of the pattern in the cell " + cell);
+    }
+
+    /**
+     * Saves the table of a pattern with a small header that describes it. The table is written to a temporary file
+     * that is renamed at the end, so an interrupted generation never leaves a partial file with the final name.
+     * @param file - Is the file to write.
+     * @param size - Is the size of the board.
+     * @param pattern - Are the tokens of the pattern.
+     * @param table - Is the table of the pattern.
+     * @throws IOException - If there are problems writing the file.
+     */
+    private static void write(File file, int size, int[] pattern, byte[] table) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(6 + pattern.length);
+        header.putInt(PatternDatabase.MAGIC);
+        header.put((byte) size);
+        header.put((byte) pattern.length);
+        for (int token : pattern) {
+            header.put((byte) token);
+        }
+        header.flip();
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile output = new RandomAccessFile(temporaryFile, "rw");
+             FileChannel channel = output.getChannel()) {
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ByteBuffer body = ByteBuffer.wrap(table);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Generates the default pattern databases of the 3x3 and 4x4 boards in the default folder.
+     * @param args - CLI arguments. Optionally, the folder where the databases are saved.
+     * @throws IOException - If there are problems writing the files.
+     */
+    public static void main(String[] args) throws IOException {
+        String folderPath = args.length > 0 ? args[0] : PatternDatabase.DATABASE_FOLDER_PATH;
+        for (int size = 3; size <= 4; size++) {
+            long start = System.nanoTime();
+            generate(folderPath, size, defaultPatterns(size));
+            System.out.println(size + "x" + size + " pattern databases generated in " +
+                    (System.nanoTime() - start) / 1000000 + "ms");
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Inner classes
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * A growable list of primitive integers, used as the frontier of a layer of the search.
+     */
+    private static class IntQueue {
+
+        private int[] values = new int[1024];
+
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package model.solver;
+
+import model.Puzzle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An optimal solver based on iterative deepening A* guided by the pattern databases of the board size. The databases
+ * of a size are opened the first time a board of that size is solved, generating them if they are not saved yet, and
+ * are kept for the next boards. It is thread safe, so a single solver can be shared by the workers of a batch.
+ */
+public class PatternDatabaseSolver implements Solver {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the folder where the databases are saved.
+     */
+    private final String folderPath;
+
+    /**
+     * Represents the solver of every board size whose databases are already open.
+     */
+    private final Map<Integer, IdaStarSolver> solvers;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a solver over the databases of a folder. No database is opened yet.
+     * @param folderPath - Is the folder where the databases are saved.
+     */
+    public PatternDatabaseSolver(String folderPath) {
+        this.folderPath = folderPath;
+        this.solvers = new HashMap<>();
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public Solution solve(Puzzle puzzle) throws IllegalArgumentException {
+        return solve(puzzle, new SolverMonitor());
+    }
+
+    /**
+     * Solves a puzzle, opening the databases of its size first if they are not open yet.
+     * @param puzzle - Is the puzzle to solve.
+     * @param monitor - Is the monitor of the search.
+     * @return the sequence of tokens to move, in order, to reach the solution.
+     * @throws IllegalArgumentException - If the puzzle can not be solved or there are no default patterns for its
+     * size.
+     * @throws UncheckedIOException - If the databases can not be read or generated.
+     */
+    @Override
+    public Solution solve(Puzzle puzzle, SolverMonitor monitor) throws IllegalArgumentException {
+        return solverOf(puzzle.getPuzzleSize()).solve(puzzle, monitor);
+    }
+
+    /**
+     * Gets the solver of a board size, opening or generating its databases the first time.
+     * @param size - Is the size of the board.
+     * @return the solver guided by the databases of the size.
+     * @throws IllegalArgumentException - If there are no default patterns for the size.
+     * @throws UncheckedIOException - If the databases can not be read or generated.
+     */
+    private synchronized IdaStarSolver solverOf(int size) throws IllegalArgumentException {
+        IdaStarSolver solver = solvers.get(size);
+        if (solver == null) {
+            try {
+                solver = new IdaStarSolver(PatternDatabase.openOrGenerate(folderPath, size));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            solvers.put(size, solver);
+        }
+        return solver;
+    }
+}
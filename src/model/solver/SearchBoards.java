@@ -0,0 +1,43 @@
+package model.solver;
+
+import model.Puzzle;
+
+/**
+ * Conversions between the puzzle model and the flat arrays used by the solvers, where the blank token is 0.
+ */
+final class SearchBoards {
+
+    private SearchBoards() {
+    }
+
+    /**
+     * Copies the current board of a puzzle into a flat array of cells.
+     * @param puzzle - Is the puzzle to copy.
+     * @return the token of every cell in row-major order, where 0 is the blank token.
+     */
+    static int[] cellsOf(Puzzle puzzle) {
+        int[][] board = puzzle.getPuzzleBoard();
+        int size = board.length;
+        int[] cells = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int token = board[i][j];
+                cells[i * size + j] = token == Puzzle.BLANK_TOKEN ? 0 : token;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Builds the inverse of a board: the cell where every token is placed.
+     * @param cells - Is the token of every cell, where 0 is the blank token.
+     * @return the cell of every token, where the position 0 is the one of the blank token.
+     */
+    static int[] positionsOf(int[] cells) {
+        int[] positions = new int[cells.length];
+        for (int cell = 0; cell < cells.length; cell++) {
+            positions[cells[cell]] = cell;
+        }
+        return positions;
+    }
+}
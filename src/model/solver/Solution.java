@@ -0,0 +1,83 @@
+package model.solver;
+
+/**
+ * The result of a solver: the tokens to move, in order, plus the statistics of the search that found them.
+ */
+public class Solution {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the tokens to move, in order, to solve the puzzle.
+     */
+    private final int[] tokens;
+
+    /**
+     * Represents the number of nodes expanded by the search.
+     */
+    private final long nodesExpanded;
+
+    /**
+     * Represents the time spent by the search, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a solution with the found tokens and the search statistics.
+     * @param tokens - Are the tokens to move, in order, to solve the puzzle.
+     * @param nodesExpanded - Is the number of nodes expanded by the search.
+     * @param elapsedNanos - Is the time spent by the search, in nanoseconds.
+     */
+    public Solution(int[] tokens, long nodesExpanded, long elapsedNanos) {
+        this.tokens = tokens;
+        this.nodesExpanded = nodesExpanded;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the tokens to move, in order, to solve the puzzle. Each one can be given to {@link model.Puzzle#doMove}.
+     * @return the sequence of tokens to move.
+     */
+    public int[] getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Gets the number of movements of the solution.
+     * @return the length of the solution.
+     */
+    public int getLength() {
+        return tokens.length;
+    }
+
+    /**
+     * Gets the number of nodes expanded by the search.
+     * @return the number of expanded nodes.
+     */
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Gets the time spent by the search.
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "length=" + tokens.length + " nodes=" + nodesExpanded + " time=" + (elapsedNanos / 1000000) + "ms";
+    }
+}
@@ -0,0 +1,283 @@
+package model.solver;
+
+import model.Zobrist;
+
+import java.util.Arrays;
+
+/**
+ * A bounded cache of solved states. Every entry maps the key of a board to its distance to the solution and the best
+ * token to move next. The entries live in parallel primitive arrays addressed by linear probing, so a lookup does not
+ * allocate, and the memory used is fixed when the cache is built. When the cache is full, the least recently used
+ * entries are evicted with the CLOCK algorithm: every hit sets a reference mark, and the clock hand clears the marks
+ * until it finds an entry without one.
+ * <p>
+ * All the services are synchronized, so a cache can be shared by solvers running in different threads.
+ */
+public class SolutionCache {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the default number of entries of a cache, about 6 MB of memory.
+     */
+    public final static int DEFAULT_MAX_ENTRIES = 1 << 18;
+
+    /**
+     * Represents a missing entry in a lookup.
+     */
+    public final static int MISSING = -1;
+
+    /**
+     * Represents the biggest board size whose keys are exact, because the board fits in a long with 4 bits per cell.
+     */
+    private final static int PACKED_MAX_SIZE = 4;
+
+    /**
+     * Represents an empty slot of the table.
+     */
+    private final static byte EMPTY = 0;
+
+    /**
+     * Represents a used slot that has not been read since the clock hand last passed.
+     */
+    private final static byte USED = 1;
+
+    /**
+     * Represents a used slot that has been read since the clock hand last passed.
+     */
+    private final static byte REFERENCED = 2;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the maximum number of entries of the cache.
+     */
+    private final int maxEntries;
+
+    /**
+     * Represents the mask that turns a hash into a slot. The table length is a power of two.
+     */
+    private final int mask;
+
+    /**
+     * Represents the key of every slot.
+     */
+    private final long[] keys;
+
+    /**
+     * Represents the entry of every slot: the distance in the high 16 bits and the next token in the low ones.
+     */
+    private final int[] entries;
+
+    /**
+     * Represents the state of every slot: empty, used or referenced.
+     */
+    private final byte[] states;
+
+    /**
+     * Represents the number of entries in the cache.
+     */
+    private int size;
+
+    /**
+     * Represents the slot where the clock hand is.
+     */
+    private int hand;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds an empty cache with the default number of entries.
+     */
+    public SolutionCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Builds an empty cache. The table has at least twice as many slots as entries, so the probe sequences stay short.
+     * @param maxEntries - Is the maximum number of entries of the cache.
+     * @throws IllegalArgumentException - If the maximum number of entries is not positive or too big.
+     */
+    public SolutionCache(int maxEntries) throws IllegalArgumentException {
+        if (maxEntries < 1 || maxEntries > 1 << 29) {
+            throw new IllegalArgumentException("Invalid number of entries: " + maxEntries);
+        }
+        int length = Integer.highestOneBit(maxEntries * 2 - 1) << 1;
+        this.maxEntries = maxEntries;
+        this.mask = length - 1;
+        this.keys = new long[length];
+        this.entries = new int[length];
+        this.states = new byte[length];
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Computes the key of a board. Boards up to 4x4 are packed in the key with 4 bits per cell, so their keys are
+     * exact. Bigger boards use their Zobrist hash, the one kept by {@link model.Puzzle#getStateHash()}, so two of them
+     * may share a key, and the users of the cache must check the entries they read.
+     * @param cells - Is the token of every cell in row-major order, where 0 is the blank token.
+     * @param size - Is the size of the board.
+     * @return the key of the board.
+     */
+    public static long keyOf(int[] cells, int size) {
+        long key = 0;
+        if (size <= PACKED_MAX_SIZE) {
+            for (int cell = 0; cell < cells.length; cell++) {
+                key |= ((long) cells[cell]) << (cell * 4);
+            }
+        } else {
+            key = Zobrist.hash(cells, size);
+        }
+        return key;
+    }
+
+    /**
+     * Gets the distance to the solution stored in an entry.
+     * @param entry - Is an entry returned by {@link #get(long)}.
+     * @return the number of movements to the solution.
+     */
+    public static int distanceOf(int entry) {
+        return entry >>> 16;
+    }
+
+    /**
+     * Gets the next token stored in an entry.
+     * @param entry - Is an entry returned by {@link #get(long)}.
+     * @return the token to move next, or 0 if the board is the solution.
+     */
+    public static int nextTokenOf(int entry) {
+        return entry & 0xFFFF;
+    }
+
+    /**
+     * Looks up a board and marks its entry as recently used.
+     * @param key - Is the key of the board.
+     * @return the entry of the board, or {@link #MISSING} if it is not in the cache.
+     */
+    public synchronized int get(long key) {
+        int slot = slotOf(key);
+        if (states[slot] == EMPTY) {
+            return MISSING;
+        }
+        states[slot] = REFERENCED;
+        return entries[slot];
+    }
+
+    /**
+     * Stores the distance and the next token of a board, evicting an entry if the cache is full.
+     * @param key - Is the key of the board.
+     * @param distance - Is the number of movements to the solution, up to 65535.
+     * @param nextToken - Is the token to move next, up to 65535, or 0 if the board is the solution.
+     */
+    public synchronized void put(long key, int distance, int nextToken) {
+        int slot = slotOf(key);
+        if (states[slot] == EMPTY) {
+            if (size == maxEntries) {
+                evict();
+                slot = slotOf(key);
+            }
+            keys[slot] = key;
+            states[slot] = USED;
+            size++;
+        }
+        entries[slot] = (distance << 16) | nextToken;
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     * @return the number of boards stored.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of entries of the cache.
+     * @return the number of boards that can be stored before evicting.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Removes every entry of the cache.
+     */
+    public synchronized void clear() {
+        Arrays.fill(states, EMPTY);
+        size = 0;
+        hand = 0;
+    }
+
+    /**
+     * Finds the slot of a key: the one that holds it, or the empty slot where it would be inserted.
+     * @param key - Is the key to find.
+     * @return the slot of the key.
+     */
+    private int slotOf(long key) {
+        int slot = home(key);
+        while (states[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Computes the first slot probed for a key.
+     * @param key - Is the key.
+     * @return the slot where the probe sequence of the key starts.
+     */
+    private int home(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Moves the clock hand until it finds an entry that was not read since the last pass, clearing the marks on its
+     * way, and removes that entry.
+     */
+    private void evict() {
+        while (true) {
+            if (states[hand] == REFERENCED) {
+                states[hand] = USED;
+            } else if (states[hand] == USED) {
+                remove(hand);
+                size--;
+                return;
+            }
+            hand = (hand + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties a slot, shifting back the entries of the following probe sequence so no lookup is broken.
+     * @param slot - Is the slot to empty.
+     */
+    private void remove(int slot) {
+        int free = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (states[next] == EMPTY) {
+                break;
+            }
+            int home = home(keys[next]);
+            boolean staysInPlace = free <= next ? free < home && home <= next : free < home || home <= next;
+            if (!staysInPlace) {
+                keys[free] = keys[next];
+                entries[free] = entries[next];
+                states[free] = states[next];
+                free = next;
+            }
+        }
+        states[free] = EMPTY;
+    }
+}
@@ -0,0 +1,30 @@
+package model.solver;
+
+import model.Puzzle;
+
+/**
+ * A strategy that computes a sequence of movements that takes a puzzle to its ordered solution.
+ */
+public interface Solver {
+
+    /**
+     * Solves the current state of the specified puzzle. The puzzle is not modified.
+     * @param puzzle - Is the puzzle to solve.
+     * @return the sequence of tokens to move, in order, to reach the solution.
+     * @throws IllegalArgumentException - If the puzzle can not be solved.
+     */
+    Solution solve(Puzzle puzzle) throws IllegalArgumentException;
+
+    /**
+     * Solves the current state of the specified puzzle, reporting the progress to a monitor that can cancel the
+     * search. By default the monitor is ignored.
+     * @param puzzle - Is the puzzle to solve.
+     * @param monitor - Is the monitor of the search.
+     * @return the sequence of tokens to move, in order, to reach the solution.
+     * @throws IllegalArgumentException - If the puzzle can not be solved.
+     * @throws java.util.concurrent.CancellationException - If the monitor cancelled the search.
+     */
+    default Solution solve(Puzzle puzzle, SolverMonitor monitor) throws IllegalArgumentException {
+        return solve(puzzle);
+    }
+}
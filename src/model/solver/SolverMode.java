@@ -0,0 +1,127 @@
+package model.solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The solvers that can be selected by the user. Every mode builds a new solver of its kind.
+ */
+public enum SolverMode {
+
+    /**
+     * Iterative deepening A* guided by the Manhattan distance plus linear conflicts, for any board size.
+     */
+    IDA_STAR("IDA*") {
+        @Override
+        public Solver createSolver() {
+            return new IdaStarSolver();
+        }
+    },
+
+    /**
+     * Iterative deepening A* whose iterations are split over the common fork join pool.
+     */
+    PARALLEL_IDA_STAR("Parallel IDA*") {
+        @Override
+        public Solver createSolver() {
+            return new ParallelIdaStarSolver();
+        }
+    },
+
+    /**
+     * Iterative deepening A* guided by the walking distance, for boards up to 4x4.
+     */
+    WALKING_DISTANCE("IDA* walking distance") {
+        @Override
+        public Solver createSolver() {
+            return new IdaStarSolver(new WalkingDistance());
+        }
+    },
+
+    /**
+     * Iterative deepening A* guided by the pattern databases of the board size, for 3x3 and 4x4 boards. The databases
+     * of a size are opened the first time a board of that size is solved, generating them if they are not saved yet.
+     */
+    PATTERN_DATABASE("IDA* pattern database") {
+        @Override
+        public Solver createSolver() {
+            return new PatternDatabaseSolver(PatternDatabase.DATABASE_FOLDER_PATH);
+        }
+    },
+
+    /**
+     * Bidirectional breadth first search, for 3x3 boards and shallow 4x4 scrambles.
+     */
+    BIDIRECTIONAL("Bidirectional BFS") {
+        @Override
+        public Solver createSolver() {
+            return new BidirectionalSolver();
+        }
+    },
+
+    /**
+     * Lookups in the precomputed distance of every 3x3 board, generated the first time it is used.
+     */
+    EIGHT_PUZZLE_TABLE("3x3 distance table") {
+        @Override
+        public Solver createSolver() {
+            try {
+                return EightPuzzleTable.openOrGenerate(PatternDatabase.DATABASE_FOLDER_PATH);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    },
+
+    /**
+     * Restarting weighted A* with a time budget, for big boards. Its solutions are not always the shortest.
+     */
+    ANYTIME("Anytime weighted A*") {
+        @Override
+        public Solver createSolver() {
+            return new AnytimeSolver();
+        }
+
+        @Override
+        public boolean isOptimal() {
+            return false;
+        }
+    };
+
+    /**
+     * Represents the name shown to the user.
+     */
+    private final String displayName;
+
+    /**
+     * Builds a solver mode.
+     * @param displayName - Is the name shown to the user.
+     */
+    SolverMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Builds a new solver of this mode.
+     * @return the solver.
+     * @throws UncheckedIOException - If the solver needs data from disk that can not be read.
+     */
+    public abstract Solver createSolver();
+
+    /**
+     * Checks if the solvers of this mode always find the shortest solutions. By default they do.
+     * @return true if the solutions are optimal.
+     */
+    public boolean isOptimal() {
+        return true;
+    }
+
+    /**
+     * Gets the name shown to the user.
+     * @return the display name of the mode.
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,55 @@
+package model.solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Follows the progress of a running search and lets other threads cancel it. The default progress callback does
+ * nothing; subclasses can override it to report the progress, keeping in mind that it runs on the solving thread.
+ */
+public class SolverMonitor {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the flag checked by the search on every node.
+     */
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Asks the search to stop as soon as possible. The solver then throws a
+     * {@link java.util.concurrent.CancellationException}.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Checks if the search was cancelled.
+     * @return true if the search was asked to stop.
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Called by the solver every time an iteration of the search finishes without reaching the solution.
+     * @param bound - Is the cost bound of the next iteration, a lower bound of the solution length.
+     * @param nodesExpanded - Is the number of nodes expanded so far.
+     */
+    public void iterationFinished(int bound, long nodesExpanded) {
+    }
+
+    /**
+     * Gets the flag checked by the search on every node.
+     * @return the cancellation flag.
+     */
+    AtomicBoolean getCancelledFlag() {
+        return cancelled;
+    }
+}
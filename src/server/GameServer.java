@@ -0,0 +1,308 @@
+package server;
+
+import model.Puzzle;
+import model.UnsolvablePuzzleException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A headless server of games over a local socket, on top of a {@link SessionManager}. Every connection has its own
+ * thread and speaks a line based text protocol: each command is answered with a line that starts with OK or ERR.
+ * <pre>
+ * NEW size              OK id
+ * MOVE id token         OK movements [SOLVED]
+ * BLANK id U|R|D|L      OK movements [SOLVED]
+ * UNDO id               OK movements [SOLVED]
+ * REDO id               OK movements [SOLVED]
+ * BOARD id              OK size token... (0 is the blank token)
+ * CLOSE id              OK
+ * QUIT                  (closes the connection)
+ * </pre>
+ * A movement is answered with SOLVED whenever it leaves the board solved, an undone one included. A session belongs
+ * to the connection that opened it: the other connections are answered as if it did not exist, and it is closed with
+ * its connection. The server only listens on the loopback address.
+ */
+public class GameServer implements Closeable {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the port used when none is given.
+     */
+    public final static int DEFAULT_PORT = 7171;
+
+    /**
+     * Represents the biggest board size that can be opened through the protocol.
+     */
+    public final static int MAX_SIZE = 16;
+
+    /**
+     * Represents the letters of the directions of the blank token, indexed by direction.
+     */
+    private final static String DIRECTIONS = "URDL";
+
+    /**
+     * Represents the commands that act on a session, which must be one opened by the same connection.
+     */
+    private final static List<String> SESSION_COMMANDS = Arrays.asList("MOVE", "BLANK", "UNDO", "REDO", "BOARD",
+            "CLOSE");
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the sessions served.
+     */
+    private final SessionManager sessions;
+
+    /**
+     * Represents the socket where the connections are accepted.
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Represents the threads of the connections.
+     */
+    private final ExecutorService connections;
+
+    /**
+     * Represents the sockets of the open connections, closed with the server.
+     */
+    private final Set<Socket> openSockets;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a server listening on a local port. The connections are not accepted until {@link #serve()} is called.
+     * @param sessions - Is the manager of the sessions served.
+     * @param port - Is the port, or 0 for any free port.
+     * @throws IOException - If the port can not be bound.
+     */
+    public GameServer(SessionManager sessions, int port) throws IOException {
+        this.sessions = sessions;
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.connections = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "game-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.openSockets = ConcurrentHashMap.newKeySet();
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the port where the server listens.
+     * @return the local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed, serving each one in its own thread.
+     * @throws IOException - If there are problems accepting a connection.
+     */
+    public void serve() throws IOException {
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                openSockets.add(socket);
+                try {
+                    connections.execute(() -> serveConnection(socket));
+                } catch (RejectedExecutionException e) {
+                    // The server was closed after the connection was accepted.
+                    openSockets.remove(socket);
+                    socket.close();
+                }
+            }
+        } catch (SocketException e) {
+            if (!serverSocket.isClosed()) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones. Closing their sockets wakes up the threads blocked
+     * reading them, which then close the sessions of their connections.
+     * @throws IOException - If there are problems closing the socket.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        for (Socket socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // The connection is going away anyway.
+            }
+        }
+    }
+
+    /**
+     * Runs a single command of the protocol.
+     * @param command - Is the line of the command.
+     * @param openSessions - Are the ids of the sessions opened by the connection, updated by NEW and CLOSE. The
+     * commands on any other session are rejected.
+     * @return the answer, without line terminator, or null if the command closes the connection.
+     */
+    public String execute(String command, Set<Long> openSessions) {
+        String[] words = command.trim().split("\\s+");
+        String name = words[0].toUpperCase(Locale.ROOT);
+        try {
+            if (name.equals("QUIT")) {
+                return null;
+            } else if (name.equals("NEW") && words.length == 2) {
+                int size = Integer.parseInt(words[1]);
+                if (size < 2 || size > MAX_SIZE) {
+                    return "ERR the size must be between 2 and " + MAX_SIZE;
+                }
+                long sessionId = sessions.openRandomSession(size);
+                openSessions.add(sessionId);
+                return "OK " + sessionId;
+            } else if (words.length < 2 || !SESSION_COMMANDS.contains(name)) {
+                return "ERR unknown command";
+            }
+            long sessionId = Long.parseLong(words[1]);
+            if (!openSessions.contains(sessionId)) {
+                return "ERR no such session";
+            }
+            if (name.equals("MOVE") && words.length == 3) {
+                return movementAnswer(sessions.move(sessionId, Integer.parseInt(words[2])));
+            } else if (name.equals("BLANK") && words.length == 3) {
+                int direction = DIRECTIONS.indexOf(words[2].toUpperCase(Locale.ROOT));
+                if (words[2].length() != 1 || direction == -1) {
+                    return "ERR the direction must be U, R, D or L";
+                }
+                return movementAnswer(sessions.moveBlank(sessionId, direction));
+            } else if (name.equals("UNDO") && words.length == 2) {
+                return movementAnswer(sessions.undo(sessionId));
+            } else if (name.equals("REDO") && words.length == 2) {
+                return movementAnswer(sessions.redo(sessionId));
+            } else if (name.equals("BOARD") && words.length == 2) {
+                return boardAnswer(sessions.getBoard(sessionId));
+            } else if (name.equals("CLOSE") && words.length == 2) {
+                openSessions.remove(sessionId);
+                return sessions.closeSession(sessionId) ? "OK" : "ERR no such session";
+            }
+            return "ERR unknown command";
+        } catch (NumberFormatException e) {
+            return "ERR invalid number";
+        } catch (IOException | UnsolvablePuzzleException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Serves the commands of a connection until it is closed or it sends QUIT, and then closes the sessions it opened.
+     * @param socket - Is the socket of the connection.
+     */
+    private void serveConnection(Socket socket) {
+        Set<Long> openSessions = new HashSet<>();
+        try (Socket connection = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(),
+                     StandardCharsets.US_ASCII));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(),
+                     StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String answer = execute(line, openSessions);
+                if (answer == null) {
+                    break;
+                }
+                writer.write(answer);
+                writer.write('\n');
+                // Pipelined commands are answered together, with a single write to the socket.
+                if (!reader.ready()) {
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The client went away.
+        } finally {
+            openSockets.remove(socket);
+            for (long sessionId : openSessions) {
+                sessions.closeSession(sessionId);
+            }
+        }
+    }
+
+    /**
+     * Builds the answer of a movement.
+     * @param result - Is the result of the movement, as returned by the session manager.
+     * @return the answer line.
+     */
+    private static String movementAnswer(int result) {
+        if (result == SessionManager.NO_SESSION) {
+            return "ERR no such session";
+        } else if (result == SessionManager.INVALID_MOVE) {
+            return "ERR invalid movement";
+        }
+        int movements = SessionManager.movementsOf(result);
+        return SessionManager.solvedOf(result) ? "OK " + movements + " SOLVED" : "OK " + movements;
+    }
+
+    /**
+     * Builds the answer of a board.
+     * @param board - Is the board of the session, or null if the session is not open.
+     * @return the answer line.
+     */
+    private static String boardAnswer(int[][] board) {
+        if (board == null) {
+            return "ERR no such session";
+        }
+        StringBuilder answer = new StringBuilder("OK ").append(board.length);
+        for (int[] row : board) {
+            for (int token : row) {
+                answer.append(' ').append(token == Puzzle.BLANK_TOKEN ? 0 : token);
+            }
+        }
+        return answer.toString();
+    }
+
+    /**
+     * Starts a server with a new session manager.
+     * @param args - CLI arguments. Optionally, the port.
+     * @throws IOException - If the port can not be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        try (GameServer server = new GameServer(new SessionManager(), port)) {
+            System.out.println("Serving games on " + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                    + server.getPort());
+            server.serve();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package server;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from long keys to objects, stored in parallel arrays with linear probing, so the keys are never boxed and
+ * a lookup does not allocate. It grows by doubling when it is half full, and a removal shifts back the keys that
+ * follow it, so no tombstones are left. The key 0 marks the empty slots, so it can not be used.
+ * @param <V> - Is the type of the values.
+ */
+class LongObjectHashMap<V> {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the minimum number of slots of a map.
+     */
+    private final static int MIN_CAPACITY = 16;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the key of every slot, or 0 if the slot is empty.
+     */
+    private long[] keys;
+
+    /**
+     * Represents the value of every slot.
+     */
+    private Object[] values;
+
+    /**
+     * Represents the mask that turns a hash into a slot. The number of slots is a power of two.
+     */
+    private int mask;
+
+    /**
+     * Represents the number of keys in the map.
+     */
+    private int size;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds an empty map.
+     * @param expectedSize - Is the number of keys expected, so the map does not grow until it is reached.
+     */
+    LongObjectHashMap(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the value of a key.
+     * @param key - Is the key to find.
+     * @return the value of the key, or null if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int slot = slotOf(key);
+        return keys[slot] == 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Adds a key with its value, replacing the previous value of the key.
+     * @param key - Is the key to add. It must not be 0.
+     * @param value - Is the value of the key.
+     * @throws IllegalArgumentException - If the key is 0.
+     */
+    void put(long key, V value) throws IllegalArgumentException {
+        if (key == 0) {
+            throw new IllegalArgumentException("The key 0 is reserved");
+        }
+        int slot = slotOf(key);
+        values[slot] = value;
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+    }
+
+    /**
+     * Removes a key with its value.
+     * @param key - Is the key to remove.
+     * @return the value of the key, or null if the key was not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int slot = slotOf(key);
+        if (keys[slot] == 0) {
+            return null;
+        }
+        V value = (V) values[slot];
+        // Every following key of the run that would no longer be found past the hole is moved into it.
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = homeOf(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+        return value;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     * @return the number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every key of the map, keeping its memory.
+     */
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Computes the preferred slot of a key.
+     * @param key - Is the key.
+     * @return the slot where the search of the key starts.
+     */
+    private int homeOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Finds the slot of a key: the one that holds it, or the empty slot where it would be added.
+     * @param key - Is the key to find.
+     * @return the slot of the key.
+     */
+    private int slotOf(long key) {
+        int slot = homeOf(key);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the number of slots, adding the keys again.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                int newSlot = slotOf(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package server;
+
+import model.Puzzle;
+import model.ScrambleGenerator;
+import model.UnsolvablePuzzleException;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many games at the same time, each one a {@link Puzzle} identified by a session id. The sessions are spread
+ * over a fixed number of stripes by their id, and every stripe has its own map and its own lock, so threads moving in
+ * sessions of different stripes never wait for each other. A movement only looks the session up in a primitive map
+ * and moves its puzzle in constant time, so it does not allocate.
+ * <p>
+ * The movement methods return the number of movements of the session after the movement, with the
+ * {@link #SOLVED_FLAG} bit set if the movement left the board solved, or a negative status: {@link #INVALID_MOVE} or
+ * {@link #NO_SESSION}. The solved state is taken under the same lock as the movement, so it is the one the movement
+ * left.
+ */
+public class SessionManager {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents a movement that can not be made on the board of the session.
+     */
+    public final static int INVALID_MOVE = -1;
+
+    /**
+     * Represents a session id that is not open.
+     */
+    public final static int NO_SESSION = -2;
+
+    /**
+     * Represents the bit set in the result of a movement that leaves the board solved.
+     */
+    public final static int SOLVED_FLAG = 1 << 30;
+
+    /**
+     * Represents the number of stripes per available processor, so few threads share a stripe at a time.
+     */
+    private final static int STRIPES_PER_PROCESSOR = 8;
+
+    /**
+     * Represents the number of sessions per stripe expected when the manager is built.
+     */
+    private final static int INITIAL_SESSIONS_PER_STRIPE = 64;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the stripes of sessions. The number of stripes is a power of two.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Represents the mask that turns a session id into its stripe.
+     */
+    private final int stripeMask;
+
+    /**
+     * Represents the last session id given.
+     */
+    private final AtomicLong lastSessionId;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a manager with a number of stripes suited to the available processors.
+     */
+    public SessionManager() {
+        this(STRIPES_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Builds a manager without sessions.
+     * @param stripeCount - Is the minimum number of stripes. It is rounded up to a power of two.
+     */
+    public SessionManager(int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount) * 2 - 1);
+        stripes = new Stripe[count];
+        for (int stripe = 0; stripe < count; stripe++) {
+            stripes[stripe] = new Stripe();
+        }
+        stripeMask = count - 1;
+        lastSessionId = new AtomicLong();
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Opens a session with a board.
+     * @param board - Is the squared matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}.
+     * @return the id of the new session, which is never 0.
+     * @throws IOException - If there are problems reading the solution file of the size.
+     * @throws UnsolvablePuzzleException - If the board can not reach the solution.
+     */
+    public long openSession(int[][] board) throws IOException, UnsolvablePuzzleException {
+        Puzzle puzzle = new Puzzle(board);
+        long sessionId = lastSessionId.incrementAndGet();
+        Stripe stripe = stripeOf(sessionId);
+        synchronized (stripe) {
+            stripe.sessions.put(sessionId, puzzle);
+        }
+        return sessionId;
+    }
+
+    /**
+     * Opens a session with a uniformly random solvable board.
+     * @param size - Is the size of the board.
+     * @return the id of the new session, which is never 0.
+     * @throws IOException - If there are problems reading the solution file of the size.
+     * @throws UnsolvablePuzzleException - If there is a solution file whose parity differs from the ordered one.
+     */
+    public long openRandomSession(int size) throws IOException, UnsolvablePuzzleException {
+        return openSession(new ScrambleGenerator().randomBoard(size));
+    }
+
+    /**
+     * Closes a session.
+     * @param sessionId - Is the id of the session.
+     * @return true if the session was closed, false if it was not open.
+     */
+    public boolean closeSession(long sessionId) {
+        Stripe stripe = stripeOf(sessionId);
+        synchronized (stripe) {
+            return stripe.sessions.remove(sessionId) != null;
+        }
+    }
+
+    /**
+     * Moves a token of a session to the blank cell.
+     * @param sessionId - Is the id of the session.
+     * @param token - Is the token to move.
+     * @return the number of movements of the session, flagged if solved, {@link #INVALID_MOVE} if the token is not next
+     * to the blank cell or {@link #NO_SESSION} if the session is not open.
+     */
+    public int move(long sessionId, int token) {
+        Stripe stripe = stripeOf(sessionId);
+        synchronized (stripe) {
+            Puzzle puzzle = stripe.sessions.get(sessionId);
+            if (puzzle == null) {
+                return NO_SESSION;
+            }
+            return puzzle.doMove(token) ? resultOf(puzzle) : INVALID_MOVE;
+        }
+    }
+
+    /**
+     * Moves the blank token of a session to a neighbour cell.
+     * @param sessionId - Is the id of the session.
+     * @param direction - Is the direction of the blank token: {@link Puzzle#BLANK_UP}, {@link Puzzle#BLANK_RIGHT},
+     *                  {@link Puzzle#BLANK_DOWN} or {@link Puzzle#BLANK_LEFT}.
+     * @return the number of movements of the session, flagged if solved, {@link #INVALID_MOVE} if there is no cell in
+     * that direction or {@link #NO_SESSION} if the session is not open.
+     */
+    public int moveBlank(long sessionId, int direction) {
+        Stripe stripe = stripeOf(sessionId);
+        synchronized (stripe) {
+            Puzzle puzzle = stripe.sessions.get(sessionId);
+            if (puzzle == null) {
+                return NO_SESSION;
+            }
+            return puzzle.moveBlank(direction) ? resultOf(puzzle) : INVALID_MOVE;
+        }
+    }
+
+    /**
+     * Undoes the last movement of a session.
+     * @param sessionId - Is the id of the session.
+     * @return the number of movements of the session, flagged if solved, {@link #INVALID_MOVE} if there is no movement
+     * to undo or {@link #NO_SESSION} if the session is not open.
+     */
+    public int undo(long sessionId) {
+        Stripe stripe = stripeOf(sessionId);
+        synchronized (stripe) {
+            Puzzle puzzle = stripe.sessions.get(sessionId);
+            if (puzzle == null) {
+                return NO_SESSION;
+            }
+            return puzzle.undo() ? resultOf(puzzle) : INVALID_MOVE;
+        }
+    }
+
+    /**
+     * Redoes the last movement undone in a session.
+     * @param sessionId - Is the id of the session.
+     * @return the number of movements of the session, flagged if solved, {@link #INVALID_MOVE} if there is no movement
+     * to redo or {@link #NO_SESSION} if the session is not open.
+     */
+    public int redo(long sessionId) {
+        Stripe stripe = stripeOf(sessionId);
+        synchronized (stripe) {
+            Puzzle puzzle = stripe.sessions.get(sessionId);
+            if (puzzle == null) {
+                return NO_SESSION;
+            }
+            return puzzle.redo() ? resultOf(puzzle) : INVALID_MOVE;
+        }
+    }
+
+    /**
+     * Checks if the board of a session is solved.
+     * @param sessionId - Is the id of the session.
+     * @return true if the session is open and solved.
+     */
+    public boolean isSolved(long sessionId) {
+        Stripe stripe = stripeOf(sessionId);
+        synchronized (stripe) {
+            Puzzle puzzle = stripe.sessions.get(sessionId);
+            return puzzle != null && puzzle.puzzleSolved();
+        }
+    }
+
+    /**
+     * Gets the board of a session.
+     * @param sessionId - Is the id of the session.
+     * @return a new matrix of tokens, where the blank is represented with {@link Puzzle#BLANK_TOKEN}, or null if the
+     * session is not open.
+     */
+    public int[][] getBoard(long sessionId) {
+        Stripe stripe = stripeOf(sessionId);
+        synchronized (stripe) {
+            Puzzle puzzle = stripe.sessions.get(sessionId);
+            return puzzle == null ? null : puzzle.getPuzzleBoard();
+        }
+    }
+
+    /**
+     * Counts the open sessions. The stripes are counted one after the other, so the count may miss sessions opened
+     * or closed meanwhile.
+     * @return the number of open sessions.
+     */
+    public int getSessionCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.sessions.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of movements from the result of a movement that was made.
+     * @param result - Is the result of the movement, not negative.
+     * @return the number of movements of the session.
+     */
+    public static int movementsOf(int result) {
+        return result & ~SOLVED_FLAG;
+    }
+
+    /**
+     * Checks if the result of a movement that was made left the board solved.
+     * @param result - Is the result of the movement, not negative.
+     * @return true if the board of the session is solved.
+     */
+    public static boolean solvedOf(int result) {
+        return (result & SOLVED_FLAG) != 0;
+    }
+
+    /**
+     * Builds the result of a movement made on a puzzle. Called with the lock of its stripe held.
+     * @param puzzle - Is the puzzle of the session.
+     * @return the number of movements of the puzzle, with {@link #SOLVED_FLAG} set if it is solved.
+     */
+    private static int resultOf(Puzzle puzzle) {
+        return puzzle.puzzleSolved() ? puzzle.getMovements() | SOLVED_FLAG : puzzle.getMovements();
+    }
+
+    /**
+     * Finds the stripe of a session. The ids are consecutive, so their low bits spread the sessions evenly.
+     * @param sessionId - Is the id of the session.
+     * @return the stripe that holds the session.
+     */
+    private Stripe stripeOf(long sessionId) {
+        return stripes[(int) sessionId & stripeMask];
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Inner classes
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * A share of the sessions, guarded by its own monitor.
+     */
+    private static class Stripe {
+
+        /**
+         * Represents the puzzle of every session of the stripe, by session id.
+         */
+        private final LongObjectHashMap<Puzzle> sessions = new LongObjectHashMap<>(INITIAL_SESSIONS_PER_STRIPE);
+    }
+}
@@ -0,0 +1,278 @@
+package view;
+
+import model.Puzzle;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * Plays a sequence of movements back through {@link Puzzle#doMove(int)}. A Swing timer fires once per frame and applies
+ * every movement due since the previous frame, so the speed is not limited by the frame rate. The cells touched in a
+ * frame are refreshed once at the end of it, together with the movements counter.
+ */
+public class AutoPlayer implements ActionListener {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the available speeds, in movements per second.
+     */
+    public final static Integer[] SPEEDS = {1, 2, 5, 10, 50, 200, 1000, 5000};
+
+    /**
+     * Represents the default speed, in movements per second.
+     */
+    public final static int DEFAULT_SPEED = 5;
+
+    /**
+     * Represents the delay between two frames, in milliseconds.
+     */
+    private final static int FRAME_DELAY = 16;
+
+    /**
+     * Represents the number of nanoseconds in a second.
+     */
+    private final static double NANOS_PER_SECOND = 1e9;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the main frame that is notified when the playback ends.
+     */
+    private final MainFrame context;
+
+    /**
+     * Represents the panel where the board is drawn.
+     */
+    private final PuzzlePanel puzzlePanel;
+
+    /**
+     * Represents the panel where the movements counter is shown.
+     */
+    private final InformationPanel informationPanel;
+
+    /**
+     * Represents the timer that fires once per frame.
+     */
+    private final Timer timer;
+
+    /**
+     * Represents the puzzle where the movements are played.
+     */
+    private Puzzle puzzle;
+
+    /**
+     * Represents the tokens to move, in order.
+     */
+    private int[] tokens;
+
+    /**
+     * Represents the position of the next token to move.
+     */
+    private int nextMove;
+
+    /**
+     * Represents the speed of the playback, in movements per second.
+     */
+    private int movesPerSecond;
+
+    /**
+     * Represents the fraction of a movement carried from a frame to the next one.
+     */
+    private double pendingMoves;
+
+    /**
+     * Represents the time of the last frame, in nanoseconds.
+     */
+    private long lastFrame;
+
+    /**
+     * Represents, for every cell of the board, if it has to be refreshed at the end of the frame.
+     */
+    private boolean[] dirty;
+
+    /**
+     * Represents the cells to refresh at the end of the frame.
+     */
+    private int[] dirtyCells;
+
+    /**
+     * Represents the number of cells to refresh at the end of the frame.
+     */
+    private int dirtyCount;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds an auto player without movements to play.
+     * @param context - Is the main frame that is notified when the playback ends.
+     * @param puzzlePanel - Is the panel where the board is drawn.
+     * @param informationPanel - Is the panel where the movements counter is shown.
+     */
+    public AutoPlayer(MainFrame context, PuzzlePanel puzzlePanel, InformationPanel informationPanel) {
+        this.context = context;
+        this.puzzlePanel = puzzlePanel;
+        this.informationPanel = informationPanel;
+        this.timer = new Timer(FRAME_DELAY, this);
+        this.timer.setCoalesce(true);
+        this.tokens = new int[0];
+        this.movesPerSecond = DEFAULT_SPEED;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Loads a new sequence of movements, stopping the current playback.
+     * @param puzzle - Is the puzzle where the movements will be played.
+     * @param tokens - Are the tokens to move, in order, starting from the current board of the puzzle.
+     */
+    public void load(Puzzle puzzle, int[] tokens) {
+        pause();
+        this.puzzle = puzzle;
+        this.tokens = tokens;
+        this.nextMove = 0;
+        int cellCount = puzzle.getPuzzleSize() * puzzle.getPuzzleSize();
+        if (dirty == null || dirty.length != cellCount) {
+            dirty = new boolean[cellCount];
+            dirtyCells = new int[cellCount];
+        }
+    }
+
+    /**
+     * Forgets the loaded movements, for example because the board changed.
+     */
+    public void clear() {
+        pause();
+        puzzle = null;
+        tokens = new int[0];
+        nextMove = 0;
+    }
+
+    /**
+     * Checks if there are movements left to play.
+     * @return true if the next call to play or step moves a token.
+     */
+    public boolean hasMoves() {
+        return puzzle != null && nextMove < tokens.length;
+    }
+
+    /**
+     * Checks if the playback is running.
+     * @return true if the timer is running.
+     */
+    public boolean isPlaying() {
+        return timer.isRunning();
+    }
+
+    /**
+     * Changes the speed of the playback.
+     * @param movesPerSecond - Is the new number of movements per second.
+     */
+    public void setMovesPerSecond(int movesPerSecond) {
+        this.movesPerSecond = movesPerSecond;
+    }
+
+    /**
+     * Starts playing the movements left.
+     */
+    public void play() {
+        if (hasMoves() && !timer.isRunning()) {
+            // The first movement is played in the first frame, instead of waiting a whole period.
+            pendingMoves = 1;
+            lastFrame = System.nanoTime();
+            timer.start();
+        }
+    }
+
+    /**
+     * Stops the playback, keeping the movements left.
+     */
+    public void pause() {
+        timer.stop();
+    }
+
+    /**
+     * Plays a single movement and refreshes the board.
+     */
+    public void step() {
+        pause();
+        if (hasMoves()) {
+            playMove();
+            refreshDirtyCells();
+            if (!hasMoves()) {
+                context.autoplayFinished();
+            }
+        }
+    }
+
+    /**
+     * Plays every movement due since the previous frame, then refreshes the touched cells and the counter once.
+     * @param e - Is the event of the timer.
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        long now = System.nanoTime();
+        pendingMoves += (now - lastFrame) * movesPerSecond / NANOS_PER_SECOND;
+        lastFrame = now;
+        int moves = (int) pendingMoves;
+        pendingMoves -= moves;
+        while (moves-- > 0 && hasMoves()) {
+            playMove();
+        }
+        refreshDirtyCells();
+        if (!hasMoves()) {
+            pause();
+            context.autoplayFinished();
+        }
+    }
+
+    /**
+     * Moves the next token and marks the two swapped cells as dirty. The sequence is dropped if the token can not be
+     * moved, which means the board no longer matches it.
+     */
+    private void playMove() {
+        int blankIndex = puzzle.getBlankIndex();
+        if (puzzle.doMove(tokens[nextMove])) {
+            nextMove++;
+            context.journalMove(blankIndex);
+            markDirty(blankIndex);
+            markDirty(puzzle.getBlankIndex());
+        } else {
+            nextMove = tokens.length;
+        }
+    }
+
+    /**
+     * Marks a cell to be refreshed at the end of the frame. A cell is only queued once per frame.
+     * @param index - Is the index of the cell.
+     */
+    private void markDirty(int index) {
+        if (!dirty[index]) {
+            dirty[index] = true;
+            dirtyCells[dirtyCount++] = index;
+        }
+    }
+
+    /**
+     * Refreshes the cells touched in the frame and the movements counter, and writes the journal of the frame.
+     */
+    private void refreshDirtyCells() {
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtyCells[i];
+            dirty[index] = false;
+            puzzlePanel.refreshToken(index, puzzle.getToken(index));
+        }
+        dirtyCount = 0;
+        informationPanel.refreshMovementsCounter(puzzle.getMovements());
+        context.flushJournal();
+    }
+}
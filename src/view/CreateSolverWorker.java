@@ -0,0 +1,72 @@
+package view;
+
+import model.solver.Solver;
+import model.solver.SolverMode;
+
+import javax.swing.*;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Builds the solver of a mode off the Event Dispatch Thread. Some modes read or generate big tables before they can
+ * solve anything, so the window keeps responding while they are prepared, and the new solver is handed to the main
+ * frame once it is ready.
+ */
+public class CreateSolverWorker extends SwingWorker<Solver, Void> {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the main frame that receives the new solver.
+     */
+    private final MainFrame context;
+
+    /**
+     * Represents the mode of the solver to build.
+     */
+    private final SolverMode mode;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a worker that prepares the solver of a mode.
+     * @param context - is the main frame that receives the new solver.
+     * @param mode - is the mode of the solver to build.
+     */
+    public CreateSolverWorker(MainFrame context, SolverMode mode) {
+        this.context = context;
+        this.mode = mode;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds the solver in the background.
+     * @return the solver of the mode.
+     */
+    @Override
+    protected Solver doInBackground() {
+        return mode.createSolver();
+    }
+
+    /**
+     * Hands the new solver, or the error, to the main frame on the Event Dispatch Thread.
+     */
+    @Override
+    protected void done() {
+        try {
+            context.solverCreated(mode, get());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            context.solverCreationFailed(cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package view;
 
+import model.metrics.Metrics;
+
 import javax.swing.*;
 import java.awt.*;
 
 public class InformationPanel extends JPanel {
 
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the delay between two refreshes of the live metrics, in milliseconds.
+     */
+    private final static int METRICS_REFRESH_DELAY = 1000;
+
     // ----------------------------------------------------------------------------------------------------------------
     // Fields
     // ----------------------------------------------------------------------------------------------------------------
@@ -14,20 +25,43 @@ public class InformationPanel extends JPanel {
      */
     private JLabel movementsLabel;
 
+    /**
+     * Represents the label where the state of the background tasks, like loads and hints, will be shown.
+     */
+    private JLabel statusLabel;
+
+    /**
+     * Represents the label where the live metrics will be shown, or null if the metrics are off.
+     */
+    private JLabel metricsLabel;
+
+    /**
+     * Represents the timer that refreshes the live metrics, or null if the metrics are off.
+     */
+    private Timer metricsTimer;
+
     // ----------------------------------------------------------------------------------------------------------------
     // Constructor
     // ----------------------------------------------------------------------------------------------------------------
 
     /**
-     * Builds an information panel with the number of movements made by the player.
+     * Builds an information panel with the number of movements made by the player. If the metrics are on, they are
+     * shown next to the counter and refreshed every second.
      */
     public InformationPanel() {
         setLayout(new FlowLayout(FlowLayout.RIGHT, 10, 5));
 
         JLabel label = new JLabel("Movements: ");
         movementsLabel = new JLabel();
+        statusLabel = new JLabel();
+        add(statusLabel);
         add(label);
         add(movementsLabel);
+        if (Metrics.ENABLED) {
+            metricsLabel = new JLabel(Metrics.summary());
+            add(metricsLabel);
+            metricsTimer = new Timer(METRICS_REFRESH_DELAY, e -> metricsLabel.setText(Metrics.summary()));
+        }
     }
 
     // ----------------------------------------------------------------------------------------------------------------
@@ -41,4 +75,35 @@ public class InformationPanel extends JPanel {
     public void refreshMovementsCounter(int newMovementsNumber) {
         movementsLabel.setText(Integer.toString(newMovementsNumber));
     }
+
+    /**
+     * Updates the state of the background tasks shown in the panel.
+     * @param status - Is the text to show, or an empty string to clear it.
+     */
+    public void refreshStatus(String status) {
+        statusLabel.setText(status);
+    }
+
+    /**
+     * Starts refreshing the live metrics when the panel is shown.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (metricsTimer != null) {
+            metricsTimer.start();
+        }
+    }
+
+    /**
+     * Stops refreshing the live metrics when the panel is no longer shown, so a disposed window leaves no timer
+     * behind.
+     */
+    @Override
+    public void removeNotify() {
+        if (metricsTimer != null) {
+            metricsTimer.stop();
+        }
+        super.removeNotify();
+    }
 }
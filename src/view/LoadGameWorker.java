@@ -0,0 +1,94 @@
+package view;
+
+import model.GameLibrary;
+import model.Puzzle;
+import model.metrics.Metrics;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Loads a game file off the Event Dispatch Thread. The new puzzle is built in the background and handed to the main
+ * frame once it is ready, so the window keeps responding while the file is read. The games of the library are taken
+ * from it, so a cached board is not read again.
+ */
+public class LoadGameWorker extends SwingWorker<Puzzle, Void> {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the main frame that receives the loaded puzzle.
+     */
+    private final MainFrame context;
+
+    /**
+     * Represents the path of the file where the puzzle is configured.
+     */
+    private final String gameFilePath;
+
+    /**
+     * Represents the library of the games folder.
+     */
+    private final GameLibrary gameLibrary;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a worker that loads a game file.
+     * @param context - is the main frame that receives the loaded puzzle.
+     * @param gameFilePath - is the path of the file where the puzzle is configured.
+     * @param gameLibrary - is the library of the games folder.
+     */
+    public LoadGameWorker(MainFrame context, String gameFilePath, GameLibrary gameLibrary) {
+        this.context = context;
+        this.gameFilePath = gameFilePath;
+        this.gameLibrary = gameLibrary;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the game file in the background. A game of the library is recorded in the metrics here, since the puzzle
+     * is built from its board and not from the file.
+     * @return the loaded puzzle.
+     * @throws Exception - If there are problems loading the game.
+     */
+    @Override
+    protected Puzzle doInBackground() throws Exception {
+        if (gameLibrary.getGame(gameFilePath) == null) {
+            return new Puzzle(gameFilePath);
+        }
+        if (!Metrics.ENABLED) {
+            return new Puzzle(gameLibrary.loadBoard(gameFilePath));
+        }
+        long start = System.nanoTime();
+        boolean loaded = false;
+        try {
+            Puzzle puzzle = new Puzzle(gameLibrary.loadBoard(gameFilePath));
+            loaded = true;
+            return puzzle;
+        } finally {
+            Metrics.recordLoad(loaded, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Hands the loaded puzzle, or the error, to the main frame on the Event Dispatch Thread.
+     */
+    @Override
+    protected void done() {
+        try {
+            context.gameLoaded(get(), gameFilePath);
+        } catch (ExecutionException e) {
+            context.gameLoadFailed(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
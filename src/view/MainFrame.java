@@ -1,11 +1,22 @@
 package view;
 
+import model.GameLibrary;
 import model.Puzzle;
+import model.ScrambleGenerator;
+import model.io.BinaryPuzzleFormat;
+import model.io.GameJournal;
+import model.io.PropertiesPuzzleFormat;
+import model.solver.CachingSolver;
+import model.solver.Solution;
+import model.solver.SolutionCache;
+import model.solver.Solver;
+import model.solver.SolverMode;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.io.IOException;
+import java.util.Arrays;
 
 public class MainFrame extends JFrame {
 
@@ -23,6 +34,26 @@ public class MainFrame extends JFrame {
      */
     public final static String GAME_FOLDER_PATH = "./games/";
 
+    /**
+     * Represents the board sizes offered for a new random game.
+     */
+    private final static Integer[] RANDOM_GAME_SIZES = {3, 4, 5, 6, 7, 8};
+
+    /**
+     * Represents that nothing has to be played when the running hint finishes.
+     */
+    private final static int AUTOPLAY_NONE = 0;
+
+    /**
+     * Represents that the solution has to be played when the running hint finishes.
+     */
+    private final static int AUTOPLAY_PLAY = 1;
+
+    /**
+     * Represents that a single movement has to be played when the running hint finishes.
+     */
+    private final static int AUTOPLAY_STEP = 2;
+
     // ----------------------------------------------------------------------------------------------------------------
     // Fields
     // ----------------------------------------------------------------------------------------------------------------
@@ -47,6 +78,46 @@ public class MainFrame extends JFrame {
      */
     private Puzzle puzzle;
 
+    /**
+     * Represents the search of the running hint, or null if there is none.
+     */
+    private SolveWorker solveWorker;
+
+    /**
+     * Represents the solver of the hints. It remembers the boards already solved, so asking again is immediate.
+     */
+    private CachingSolver hintSolver;
+
+    /**
+     * Represents the mode of the solver of the hints.
+     */
+    private SolverMode solverMode;
+
+    /**
+     * Represents the player of the last solution found for the current board.
+     */
+    private AutoPlayer autoPlayer;
+
+    /**
+     * Represents what to play when the running hint finishes. It is one of the AUTOPLAY constants.
+     */
+    private int pendingAutoplay;
+
+    /**
+     * Represents the generator of the random games.
+     */
+    private ScrambleGenerator scrambleGenerator;
+
+    /**
+     * Represents the journal where every movement is saved, or null if the game has not been saved.
+     */
+    private GameJournal journal;
+
+    /**
+     * Represents the library of the games folder, which keeps the boards already read.
+     */
+    private GameLibrary gameLibrary;
+
     // ----------------------------------------------------------------------------------------------------------------
     // Constructor
     // ----------------------------------------------------------------------------------------------------------------
@@ -72,6 +143,12 @@ public class MainFrame extends JFrame {
 
         optionsPanel = new OptionsPanel(this);
         add(optionsPanel, BorderLayout.SOUTH);
+
+        autoPlayer = new AutoPlayer(this, puzzlePanel, informationPanel);
+        solverMode = SolverMode.IDA_STAR;
+        hintSolver = new CachingSolver(solverMode.createSolver());
+        scrambleGenerator = new ScrambleGenerator();
+        startGameLibrary();
         pack();
     }
 
@@ -85,7 +162,7 @@ public class MainFrame extends JFrame {
     public void initializePuzzle() {
         try {
             puzzle = new Puzzle(DEFAULT_GAME_FILE);
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             JOptionPane.showMessageDialog(this, "An error occurred loading the game: " +
                     e.getMessage(), "Load game", JOptionPane.ERROR_MESSAGE);
             dispose();
@@ -93,37 +170,158 @@ public class MainFrame extends JFrame {
     }
 
     /**
-     * Delegates and control the user's movement requirement
+     * Indexes the games folder in the background and keeps following its changes. Until the index is ready, or if it
+     * fails, the games are read from disk as usual.
+     */
+    private void startGameLibrary() {
+        gameLibrary = new GameLibrary(GAME_FOLDER_PATH);
+        Thread indexer = new Thread(() -> {
+            try {
+                gameLibrary.index();
+                gameLibrary.startWatching();
+            } catch (IOException e) {
+                // The games are loaded without the library.
+            }
+        }, "game-library-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * Delegates and control the user's movement requirement. Only the two swapped tokens are refreshed in the board.
      * @param selectedNumber - Is the value of the token in the board to move.
      */
     public void doMove(int selectedNumber) {
-        puzzle.doMove(selectedNumber);
-        puzzlePanel.setPuzzleModel(puzzle.getPuzzleBoard());
+        int blankIndex = puzzle.getBlankIndex();
+        if (puzzle.doMove(selectedNumber)) {
+            stopAutoplay();
+            puzzlePanel.refreshToken(blankIndex, selectedNumber);
+            puzzlePanel.refreshToken(puzzle.getBlankIndex(), Puzzle.BLANK_TOKEN);
+            informationPanel.refreshMovementsCounter(puzzle.getMovements());
+            journalMove(blankIndex);
+            flushJournal();
+        }
+    }
+
+    /**
+     * Delegates and control the user's undo requirement. Only the two swapped tokens are refreshed in the board.
+     */
+    public void undo() {
+        int blankIndex = puzzle.getBlankIndex();
+        if (puzzle.undo()) {
+            stopAutoplay();
+            refreshSwappedTokens(blankIndex);
+            if (journal != null) {
+                try {
+                    journal.appendUndo(Puzzle.directionOf(blankIndex, puzzle.getBlankIndex(),
+                            puzzle.getPuzzleSize()));
+                } catch (IOException e) {
+                    journalFailed(e);
+                }
+            }
+            flushJournal();
+        }
+    }
+
+    /**
+     * Delegates and control the user's redo requirement. Only the two swapped tokens are refreshed in the board.
+     */
+    public void redo() {
+        int blankIndex = puzzle.getBlankIndex();
+        if (puzzle.redo()) {
+            stopAutoplay();
+            refreshSwappedTokens(blankIndex);
+            if (journal != null) {
+                try {
+                    journal.appendRedo(Puzzle.directionOf(blankIndex, puzzle.getBlankIndex(),
+                            puzzle.getPuzzleSize()));
+                } catch (IOException e) {
+                    journalFailed(e);
+                }
+            }
+            flushJournal();
+        }
+    }
+
+    /**
+     * Refreshes the two cells swapped by the last movement and the movements counter.
+     * @param previousBlankIndex - Is the cell of the blank token before the movement.
+     */
+    private void refreshSwappedTokens(int previousBlankIndex) {
+        puzzlePanel.refreshToken(previousBlankIndex, puzzle.getToken(previousBlankIndex));
+        puzzlePanel.refreshToken(puzzle.getBlankIndex(), Puzzle.BLANK_TOKEN);
         informationPanel.refreshMovementsCounter(puzzle.getMovements());
     }
 
     /**
-     * Delegates and control the user's load game requirement.
+     * Delegates and control the user's load game requirement. The file is read in the background.
      */
     public void loadGame() {
         String gameFilePath = selectFile();
         if (!gameFilePath.equals("")) {
+            optionsPanel.setLoadGameEnabled(false);
+            informationPanel.refreshStatus("Loading...");
+            new LoadGameWorker(this, gameFilePath, gameLibrary).execute();
+        }
+    }
+
+    /**
+     * Delegates and control the user's new random game requirement. The user picks the size, and the board is
+     * uniformly random among the solvable ones.
+     */
+    public void newRandomGame() {
+        Integer size = (Integer) JOptionPane.showInputDialog(this, "Size of the board:", "New random game",
+                JOptionPane.QUESTION_MESSAGE, null, RANDOM_GAME_SIZES, puzzle.getPuzzleSize());
+        if (size != null) {
             try {
-                changePuzzle(gameFilePath);
-                JOptionPane.showMessageDialog(this, "Puzzle loaded successfully!",
-                        "Load new game",JOptionPane.INFORMATION_MESSAGE);
-                revalidate();
+                changePuzzle(new Puzzle(scrambleGenerator.randomBoard(size)));
+                pack();
+            } catch (IOException | IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(this, "An error occurred creating the game: " +
+                        e.getMessage(), "New random game", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * Shows a game loaded in the background. Called on the Event Dispatch Thread. A resumed journal keeps saving the
+     * movements of the game.
+     * @param loadedPuzzle - Is the new puzzle.
+     * @param gameFilePath - Is the path of the file where the puzzle was loaded from.
+     */
+    public void gameLoaded(Puzzle loadedPuzzle, String gameFilePath) {
+        optionsPanel.setLoadGameEnabled(true);
+        informationPanel.refreshStatus("");
+        changePuzzle(loadedPuzzle);
+        if (gameFilePath.endsWith("." + GameJournal.JOURNAL_EXTENSION)) {
+            try {
+                journal = GameJournal.open(gameFilePath);
             } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "An error occurred loading the game: " +
-                        e.getMessage(), "Load game", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(this, "The movements will not be saved: " + e.getMessage(),
+                        "Load game", JOptionPane.WARNING_MESSAGE);
             }
         }
+        JOptionPane.showMessageDialog(this, "Puzzle loaded successfully!",
+                "Load new game",JOptionPane.INFORMATION_MESSAGE);
+        revalidate();
+    }
+
+    /**
+     * Reports a game that could not be loaded in the background. Called on the Event Dispatch Thread.
+     * @param message - Is the reason of the failure.
+     */
+    public void gameLoadFailed(String message) {
+        optionsPanel.setLoadGameEnabled(true);
+        informationPanel.refreshStatus("");
+        JOptionPane.showMessageDialog(this, "An error occurred loading the game: " +
+                message, "Load game", JOptionPane.ERROR_MESSAGE);
     }
 
     private String selectFile() {
         String gameFilePath = "";
-        FileNameExtensionFilter nameExtensionFilter = new FileNameExtensionFilter("Properties Files",
-                "properties");
+        FileNameExtensionFilter nameExtensionFilter = new FileNameExtensionFilter("Puzzle Files",
+                PropertiesPuzzleFormat.GAME_EXTENSION, BinaryPuzzleFormat.GAME_EXTENSION,
+                GameJournal.JOURNAL_EXTENSION);
         JFileChooser fileChooser = new JFileChooser(GAME_FOLDER_PATH);
         fileChooser.setDialogTitle("Open new Puzzle game");
         fileChooser.setDialogType(JFileChooser.OPEN_DIALOG);
@@ -137,16 +335,195 @@ public class MainFrame extends JFrame {
     }
 
     /**
-     * Orchestrates the change of the puzzle to a new one.
-     * @param gameFilePath - The path of the file where the puzzle is configured.
-     * @throws IOException - If there are problems reading the configuration file.
+     * Orchestrates the change of the puzzle to a new one. A running hint is cancelled, since it is for the old board.
+     * @param newPuzzle - The new puzzle to show.
      */
-    private void changePuzzle(String gameFilePath) throws IOException {
-        puzzle.loadGame(gameFilePath);
+    private void changePuzzle(Puzzle newPuzzle) {
+        cancelHint();
+        stopAutoplay();
+        closeJournal();
+        puzzle = newPuzzle;
         puzzlePanel.setPuzzleModel(puzzle.getPuzzleBoard());
         informationPanel.refreshMovementsCounter(puzzle.getMovements());
     }
 
+    /**
+     * Delegates and control the user's hint requirement. The current board is solved in the background.
+     */
+    public void requestHint() {
+        cancelHint();
+        pendingAutoplay = AUTOPLAY_NONE;
+        solveWorker = new SolveWorker(this, hintSolver, puzzle.getPuzzleBoard());
+        optionsPanel.setHintRunning(true);
+        informationPanel.refreshStatus("Solving...");
+        solveWorker.execute();
+    }
+
+    /**
+     * Changes the solver of the hints. The new solver is built in the background, since some modes read or generate
+     * big tables first, and the previous one keeps giving the hints until it is ready.
+     * @param mode - Is the new solver mode.
+     */
+    public void setSolverMode(SolverMode mode) {
+        optionsPanel.setSolverSelectorEnabled(false);
+        informationPanel.refreshStatus("Preparing solver...");
+        new CreateSolverWorker(this, mode).execute();
+    }
+
+    /**
+     * Starts using a solver built in the background. Called on the Event Dispatch Thread. The boards already solved
+     * are kept when both modes find optimal solutions, so the solutions of a suboptimal mode are never given by an
+     * optimal one, nor the other way around.
+     * @param mode - Is the mode of the new solver.
+     * @param solver - Is the new solver.
+     */
+    public void solverCreated(SolverMode mode, Solver solver) {
+        SolutionCache cache = mode.isOptimal() && solverMode.isOptimal() ? hintSolver.getCache()
+                : new SolutionCache();
+        hintSolver = new CachingSolver(solver, cache);
+        solverMode = mode;
+        informationPanel.refreshStatus("");
+        optionsPanel.solverModeChanged(solverMode);
+    }
+
+    /**
+     * Reports a solver that could not be built in the background, keeping the previous one. Called on the Event
+     * Dispatch Thread.
+     * @param message - Is the reason of the failure.
+     */
+    public void solverCreationFailed(String message) {
+        informationPanel.refreshStatus("");
+        optionsPanel.solverModeChanged(solverMode);
+        JOptionPane.showMessageDialog(this, "An error occurred preparing the solver: " +
+                message, "Solver", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Cancels the running hint, if there is one.
+     */
+    public void cancelHint() {
+        if (solveWorker != null) {
+            SolveWorker cancelledWorker = solveWorker;
+            solveWorker = null;
+            pendingAutoplay = AUTOPLAY_NONE;
+            cancelledWorker.cancelSolve();
+            optionsPanel.setHintRunning(false);
+            informationPanel.refreshStatus("");
+        }
+    }
+
+    /**
+     * Shows the progress of the running hint. Called on the Event Dispatch Thread.
+     * @param bound - Is the current lower bound of the solution length.
+     * @param nodesExpanded - Is the number of nodes expanded so far.
+     */
+    public void solveProgress(int bound, long nodesExpanded) {
+        informationPanel.refreshStatus("Solving... at least " + bound + " moves, " + nodesExpanded + " nodes");
+    }
+
+    /**
+     * Shows the next movement of a solution found in the background. Called on the Event Dispatch Thread.
+     * @param worker - Is the worker that found the solution.
+     * @param solution - Is the optimal solution of the board of the worker.
+     */
+    public void solveFinished(SolveWorker worker, Solution solution) {
+        if (worker != solveWorker) {
+            return;
+        }
+        solveWorker = null;
+        optionsPanel.setHintRunning(false);
+        if (!Arrays.deepEquals(worker.getBoard(), puzzle.getPuzzleBoard())) {
+            informationPanel.refreshStatus("The board changed, ask again");
+        } else if (solution.getLength() == 0) {
+            informationPanel.refreshStatus("Already solved");
+        } else {
+            informationPanel.refreshStatus("Hint: move " + solution.getTokens()[0] + " (" + solution.getLength()
+                    + " moves left)");
+            autoPlayer.load(puzzle, solution.getTokens());
+            if (pendingAutoplay == AUTOPLAY_PLAY) {
+                playSolution();
+            } else if (pendingAutoplay == AUTOPLAY_STEP) {
+                stepSolution();
+            }
+        }
+        pendingAutoplay = AUTOPLAY_NONE;
+    }
+
+    /**
+     * Reports a hint that could not be computed. Called on the Event Dispatch Thread.
+     * @param worker - Is the worker that failed.
+     * @param message - Is the reason of the failure.
+     */
+    public void solveFailed(SolveWorker worker, String message) {
+        if (worker != solveWorker) {
+            return;
+        }
+        solveWorker = null;
+        pendingAutoplay = AUTOPLAY_NONE;
+        optionsPanel.setHintRunning(false);
+        informationPanel.refreshStatus(message);
+    }
+
+    /**
+     * Delegates and control the user's play requirement. If there is no solution for the current board yet, it is
+     * searched first and played when found.
+     */
+    public void playSolution() {
+        if (autoPlayer.hasMoves()) {
+            autoPlayer.play();
+            optionsPanel.setPlaying(true);
+        } else if (!puzzle.puzzleSolved()) {
+            requestHint();
+            pendingAutoplay = AUTOPLAY_PLAY;
+        }
+    }
+
+    /**
+     * Delegates and control the user's pause requirement.
+     */
+    public void pauseSolution() {
+        autoPlayer.pause();
+        optionsPanel.setPlaying(false);
+    }
+
+    /**
+     * Delegates and control the user's step requirement. If there is no solution for the current board yet, it is
+     * searched first and its first movement is played when found.
+     */
+    public void stepSolution() {
+        if (autoPlayer.hasMoves()) {
+            autoPlayer.step();
+            optionsPanel.setPlaying(false);
+        } else if (!puzzle.puzzleSolved()) {
+            requestHint();
+            pendingAutoplay = AUTOPLAY_STEP;
+        }
+    }
+
+    /**
+     * Changes the speed of the playback.
+     * @param movesPerSecond - Is the new number of movements per second.
+     */
+    public void setAutoplaySpeed(int movesPerSecond) {
+        autoPlayer.setMovesPerSecond(movesPerSecond);
+    }
+
+    /**
+     * Reports the end of the playback. Called on the Event Dispatch Thread.
+     */
+    public void autoplayFinished() {
+        optionsPanel.setPlaying(false);
+        informationPanel.refreshStatus(puzzle.puzzleSolved() ? "Solved" : "");
+    }
+
+    /**
+     * Stops the playback and forgets its movements, since they no longer match the board.
+     */
+    private void stopAutoplay() {
+        autoPlayer.clear();
+        optionsPanel.setPlaying(false);
+    }
+
     /**
      * Delegates and control the user's victory requirement
      */
@@ -162,8 +539,126 @@ public class MainFrame extends JFrame {
         }
     }
 
+    /**
+     * Delegates and control the user's save game requirement. The first save creates a journal of the game, and from
+     * then on every movement is appended to it; saving again only appends a snapshot of the board.
+     */
     public void saveGame() {
+        try {
+            if (journal == null) {
+                String journalFilePath = selectJournalFile();
+                if (journalFilePath.equals("")) {
+                    return;
+                }
+                journal = GameJournal.create(journalFilePath, puzzle.getPuzzleBoard(), puzzle.getMovements());
+            } else {
+                journal.appendSnapshot(puzzle.getPuzzleBoard(), puzzle.getMovements());
+            }
+            journal.flush();
+            JOptionPane.showMessageDialog(this, "Game saved! Every movement will be saved from now on.",
+                    "Save game", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException e) {
+            closeJournal();
+            JOptionPane.showMessageDialog(this, "An error occurred saving the game: " +
+                    e.getMessage(), "Save game", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Appends a movement to the journal of the game, if it has been saved. A snapshot of the board is appended every
+     * {@link GameJournal#SNAPSHOT_INTERVAL} movements, so resuming the game replays a bounded number of movements.
+     * @param previousBlankIndex - Is the cell of the blank token before the movement.
+     */
+    public void journalMove(int previousBlankIndex) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendMove(Puzzle.directionOf(previousBlankIndex, puzzle.getBlankIndex(),
+                    puzzle.getPuzzleSize()));
+            if (journal.getMovesSinceSnapshot() >= GameJournal.SNAPSHOT_INTERVAL) {
+                journal.appendSnapshot(puzzle.getPuzzleBoard(), puzzle.getMovements());
+            }
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+
+    /**
+     * Writes the pending movements of the journal to its file, if the game has been saved.
+     */
+    public void flushJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+
+    /**
+     * Stops saving the game after an error writing its journal.
+     * @param e - Is the error.
+     */
+    private void journalFailed(IOException e) {
+        closeJournal();
+        JOptionPane.showMessageDialog(this, "The game is no longer being saved: " + e.getMessage(),
+                "Save game", JOptionPane.ERROR_MESSAGE);
+    }
 
+    /**
+     * Closes the journal of the game, if there is one. The movements that follow are not saved.
+     */
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                // The journal is abandoned anyway, and it can be resumed up to its last complete record.
+            }
+            journal = null;
+        }
+    }
+
+    /**
+     * Asks the user for the file where the game will be saved.
+     * @return the path of the journal file, or an empty string if the user cancelled.
+     */
+    private String selectJournalFile() {
+        String journalFilePath = "";
+        FileNameExtensionFilter nameExtensionFilter = new FileNameExtensionFilter("Saved Games",
+                GameJournal.JOURNAL_EXTENSION);
+        JFileChooser fileChooser = new JFileChooser(GAME_FOLDER_PATH);
+        fileChooser.setDialogTitle("Save Puzzle game");
+        fileChooser.setDialogType(JFileChooser.SAVE_DIALOG);
+        fileChooser.setFileFilter(nameExtensionFilter);
+        fileChooser.setMultiSelectionEnabled(false);
+        int returnValue = fileChooser.showDialog(this, "Save Game");
+        if (returnValue == JFileChooser.APPROVE_OPTION) {
+            journalFilePath = fileChooser.getSelectedFile().getPath();
+            if (!journalFilePath.endsWith("." + GameJournal.JOURNAL_EXTENSION)) {
+                journalFilePath += "." + GameJournal.JOURNAL_EXTENSION;
+            }
+        }
+        return journalFilePath;
+    }
+
+    /**
+     * Closes the journal of the game and stops following the games folder before releasing the window.
+     */
+    @Override
+    public void dispose() {
+        closeJournal();
+        if (gameLibrary != null) {
+            try {
+                gameLibrary.close();
+            } catch (IOException e) {
+                // The window is closing anyway.
+            }
+        }
+        super.dispose();
     }
 
     /**
@@ -1,5 +1,7 @@
 package view;
 
+import model.solver.SolverMode;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -16,6 +18,11 @@ public class OptionsPanel extends JPanel implements ActionListener {
      */
     private final static String LOAD_GAME_COMMAND = "Load Game";
 
+    /**
+     * Represents the new random game command for a button.
+     */
+    private final static String NEW_RANDOM_GAME_COMMAND = "New Random Game";
+
     /**
      * Represents the claim victory command for a button.
      */
@@ -26,6 +33,51 @@ public class OptionsPanel extends JPanel implements ActionListener {
      */
     private final static String SAVE_GAME_COMMAND = "Save Game";
 
+    /**
+     * Represents the hint command for a button.
+     */
+    private final static String HINT_COMMAND = "Hint";
+
+    /**
+     * Represents the cancel hint command for a button.
+     */
+    private final static String CANCEL_HINT_COMMAND = "Cancel Hint";
+
+    /**
+     * Represents the play command for a button.
+     */
+    private final static String PLAY_COMMAND = "Play";
+
+    /**
+     * Represents the pause command for a button.
+     */
+    private final static String PAUSE_COMMAND = "Pause";
+
+    /**
+     * Represents the step command for a button.
+     */
+    private final static String STEP_COMMAND = "Step";
+
+    /**
+     * Represents the undo command for a button.
+     */
+    private final static String UNDO_COMMAND = "Undo";
+
+    /**
+     * Represents the redo command for a button.
+     */
+    private final static String REDO_COMMAND = "Redo";
+
+    /**
+     * Represents the change solver command for the solver selector.
+     */
+    private final static String SOLVER_COMMAND = "Solver";
+
+    /**
+     * Represents the change speed command for the speed selector.
+     */
+    private final static String SPEED_COMMAND = "Speed";
+
     // ----------------------------------------------------------------------------------------------------------------
     // Fields
     // ----------------------------------------------------------------------------------------------------------------
@@ -35,6 +87,11 @@ public class OptionsPanel extends JPanel implements ActionListener {
      */
     private JButton loadGameButton;
 
+    /**
+     * Represents the new random game button.
+     */
+    private JButton newRandomGameButton;
+
     /**
      * Represents the claim victory button.
      */
@@ -45,6 +102,46 @@ public class OptionsPanel extends JPanel implements ActionListener {
      */
     private JButton saveGameButton;
 
+    /**
+     * Represents the undo button.
+     */
+    private JButton undoButton;
+
+    /**
+     * Represents the redo button.
+     */
+    private JButton redoButton;
+
+    /**
+     * Represents the hint button. It cancels the search while a hint is being computed.
+     */
+    private JButton hintButton;
+
+    /**
+     * Represents the play button. It pauses the playback while the solution is being played.
+     */
+    private JButton playButton;
+
+    /**
+     * Represents the step button.
+     */
+    private JButton stepButton;
+
+    /**
+     * Represents the selector of the solver used by the hints.
+     */
+    private JComboBox<SolverMode> solverSelector;
+
+    /**
+     * Represents the solver mode in use, which is selected again if a new one can not be built.
+     */
+    private SolverMode solverMode;
+
+    /**
+     * Represents the selector of the playback speed, in movements per second.
+     */
+    private JComboBox<Integer> speedSelector;
+
     /**
      * Represents the main frame where the panel is placed.
      */
@@ -66,6 +163,10 @@ public class OptionsPanel extends JPanel implements ActionListener {
         loadGameButton.setActionCommand(LOAD_GAME_COMMAND);
         loadGameButton.addActionListener(this);
 
+        newRandomGameButton = new JButton(NEW_RANDOM_GAME_COMMAND);
+        newRandomGameButton.setActionCommand(NEW_RANDOM_GAME_COMMAND);
+        newRandomGameButton.addActionListener(this);
+
         claimVictoryButton = new JButton(CLAIM_VICTORY_COMMAND);
         claimVictoryButton.setActionCommand(CLAIM_VICTORY_COMMAND);
         claimVictoryButton.addActionListener(this);
@@ -74,9 +175,96 @@ public class OptionsPanel extends JPanel implements ActionListener {
         saveGameButton.setActionCommand(SAVE_GAME_COMMAND);
         saveGameButton.addActionListener(this);
 
+        undoButton = new JButton(UNDO_COMMAND);
+        undoButton.setActionCommand(UNDO_COMMAND);
+        undoButton.addActionListener(this);
+
+        redoButton = new JButton(REDO_COMMAND);
+        redoButton.setActionCommand(REDO_COMMAND);
+        redoButton.addActionListener(this);
+
+        hintButton = new JButton(HINT_COMMAND);
+        hintButton.setActionCommand(HINT_COMMAND);
+        hintButton.addActionListener(this);
+
+        solverSelector = new JComboBox<>(SolverMode.values());
+        solverMode = (SolverMode) solverSelector.getSelectedItem();
+        solverSelector.setToolTipText("Solver of the hints");
+        solverSelector.setActionCommand(SOLVER_COMMAND);
+        solverSelector.addActionListener(this);
+
+        playButton = new JButton(PLAY_COMMAND);
+        playButton.setActionCommand(PLAY_COMMAND);
+        playButton.addActionListener(this);
+
+        stepButton = new JButton(STEP_COMMAND);
+        stepButton.setActionCommand(STEP_COMMAND);
+        stepButton.addActionListener(this);
+
+        speedSelector = new JComboBox<>(AutoPlayer.SPEEDS);
+        speedSelector.setSelectedItem(AutoPlayer.DEFAULT_SPEED);
+        speedSelector.setToolTipText("Movements per second");
+        speedSelector.setActionCommand(SPEED_COMMAND);
+        speedSelector.addActionListener(this);
+
         add(loadGameButton);
+        add(newRandomGameButton);
         add(claimVictoryButton);
         add(saveGameButton);
+        add(undoButton);
+        add(redoButton);
+        add(hintButton);
+        add(solverSelector);
+        add(playButton);
+        add(stepButton);
+        add(speedSelector);
+    }
+
+    /**
+     * Switches the hint button between asking for a hint and cancelling the running search.
+     * @param running - Is true if a hint is being computed.
+     */
+    public void setHintRunning(boolean running) {
+        String command = running ? CANCEL_HINT_COMMAND : HINT_COMMAND;
+        hintButton.setText(command);
+        hintButton.setActionCommand(command);
+    }
+
+    /**
+     * Switches the play button between starting and pausing the playback.
+     * @param playing - Is true if the solution is being played.
+     */
+    public void setPlaying(boolean playing) {
+        String command = playing ? PAUSE_COMMAND : PLAY_COMMAND;
+        playButton.setText(command);
+        playButton.setActionCommand(command);
+    }
+
+    /**
+     * Enables or disables the load game button, while a game is being loaded.
+     * @param enabled - Is true if a new game can be loaded.
+     */
+    public void setLoadGameEnabled(boolean enabled) {
+        loadGameButton.setEnabled(enabled);
+    }
+
+    /**
+     * Enables or disables the solver selector, while a new solver is being prepared.
+     * @param enabled - Is true if the solver can be changed.
+     */
+    public void setSolverSelectorEnabled(boolean enabled) {
+        solverSelector.setEnabled(enabled);
+    }
+
+    /**
+     * Selects the solver mode in use once a new solver is ready, or again if it could not be built, and enables the
+     * solver selector.
+     * @param mode - Is the solver mode in use.
+     */
+    public void solverModeChanged(SolverMode mode) {
+        solverMode = mode;
+        solverSelector.setSelectedItem(mode);
+        solverSelector.setEnabled(true);
     }
 
     /**
@@ -88,10 +276,33 @@ public class OptionsPanel extends JPanel implements ActionListener {
         String command = e.getActionCommand();
         if (command.equals(LOAD_GAME_COMMAND)) {
             context.loadGame();
+        } else if (command.equals(NEW_RANDOM_GAME_COMMAND)) {
+            context.newRandomGame();
         } else if (command.equals(CLAIM_VICTORY_COMMAND)) {
             context.claimVictory();
         } else if (command.equals(SAVE_GAME_COMMAND)) {
             context.saveGame();
+        } else if (command.equals(UNDO_COMMAND)) {
+            context.undo();
+        } else if (command.equals(REDO_COMMAND)) {
+            context.redo();
+        } else if (command.equals(HINT_COMMAND)) {
+            context.requestHint();
+        } else if (command.equals(CANCEL_HINT_COMMAND)) {
+            context.cancelHint();
+        } else if (command.equals(PLAY_COMMAND)) {
+            context.playSolution();
+        } else if (command.equals(PAUSE_COMMAND)) {
+            context.pauseSolution();
+        } else if (command.equals(STEP_COMMAND)) {
+            context.stepSolution();
+        } else if (command.equals(SOLVER_COMMAND)) {
+            SolverMode mode = (SolverMode) solverSelector.getSelectedItem();
+            if (mode != solverMode) {
+                context.setSolverMode(mode);
+            }
+        } else if (command.equals(SPEED_COMMAND)) {
+            context.setAutoplaySpeed((Integer) speedSelector.getSelectedItem());
         }
     }
 }
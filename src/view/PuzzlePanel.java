@@ -9,19 +9,33 @@ import java.awt.event.ActionListener;
 
 public class PuzzlePanel extends JPanel implements ActionListener {
 
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the size in pixels of every token of the board.
+     */
+    private final static int TOKEN_SIZE = 80;
+
     // ----------------------------------------------------------------------------------------------------------------
     // Fields
     // ----------------------------------------------------------------------------------------------------------------
 
     /**
-     * The graphical representation of the puzzle board
+     * The graphical representation of the puzzle board. The buttons are kept while the size of the board is the same.
      */
     private JButton[][] puzzleBoard;
 
     /**
-     * The data representation of the puzzle board
+     * The label of every token value, so refreshing a token does not create new strings.
      */
-    private int[][] puzzleModel;
+    private String[] tokenLabels;
+
+    /**
+     * The background of the buttons of the labeled tokens.
+     */
+    private Color tokenBackground;
 
     /**
      * Represents the instance of the context where the board is placed.
@@ -39,11 +53,7 @@ public class PuzzlePanel extends JPanel implements ActionListener {
      */
     public PuzzlePanel(MainFrame context, int[][] puzzleModel) {
         this.context = context;
-
-        setLayout(new GridLayout(puzzleModel.length, puzzleModel.length));
-        this.puzzleModel = puzzleModel;
-
-        initializePuzzleBoard();
+        setPuzzleModel(puzzleModel);
     }
 
     // ----------------------------------------------------------------------------------------------------------------
@@ -51,36 +61,57 @@ public class PuzzlePanel extends JPanel implements ActionListener {
     // ----------------------------------------------------------------------------------------------------------------
 
     /**
-     * Modifies the puzzle model to draw in the panel. Also, refresh the board in the GUI.
+     * Modifies the puzzle model to draw in the panel. Also, refresh the board in the GUI. The buttons are only
+     * created again when the size of the board changes.
      * @param puzzleModel - is the new state of the board to refresh
      */
     public void setPuzzleModel(int[][] puzzleModel) {
-        this.puzzleModel = puzzleModel;
-        initializePuzzleBoard();
+        if (puzzleBoard == null || puzzleBoard.length != puzzleModel.length) {
+            initializePuzzleBoard(puzzleModel.length);
+        }
+        for (int i = 0; i < puzzleModel.length; i++) {
+            for (int j = 0; j < puzzleModel.length; j++) {
+                refreshToken(i * puzzleModel.length + j, puzzleModel[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Refreshes a single token of the board, so a movement only repaints the two swapped cells.
+     * @param index - is the index of the cell to refresh, in row-major order.
+     * @param tokenValue - is the new token of the cell.
+     */
+    public void refreshToken(int index, int tokenValue) {
+        JButton token = puzzleBoard[index / puzzleBoard.length][index % puzzleBoard.length];
+        if (tokenValue != Puzzle.BLANK_TOKEN) {
+            token.setText(tokenLabels[tokenValue]);
+            token.setActionCommand(tokenLabels[tokenValue]);
+            token.setBackground(tokenBackground);
+        } else {
+            token.setText("");
+            token.setActionCommand("");
+            token.setBackground(Color.BLACK);
+        }
     }
 
     /**
-     * Converts the data puzzle into a graphical puzzle.
+     * Creates the buttons of a board of the specified size and draws them in the panel.
+     * @param size - is the size of the board.
      */
-    private void initializePuzzleBoard() {
-        puzzleBoard = new JButton[puzzleModel.length][puzzleModel.length];
+    private void initializePuzzleBoard(int size) {
+        tokenLabels = new String[size * size];
+        for (int tokenValue = 1; tokenValue < tokenLabels.length; tokenValue++) {
+            tokenLabels[tokenValue] = Integer.toString(tokenValue);
+        }
+        puzzleBoard = new JButton[size][size];
         for (int i = 0; i < puzzleBoard.length; i++) {
             for (int j = 0; j < puzzleBoard[0].length; j++) {
-                int tokenValue = puzzleModel[i][j];
-                String buttonLabel = "";
-                if (tokenValue != Puzzle.BLANK_TOKEN) {
-                    buttonLabel = Integer.toString(tokenValue);
-                    puzzleBoard[i][j] = new JButton(buttonLabel);
-                    puzzleBoard[i][j].setActionCommand(buttonLabel);
-                    puzzleBoard[i][j].addActionListener(this);
-                    puzzleBoard[i][j].setPreferredSize(new Dimension(80, 80));
-                } else {
-                    puzzleBoard[i][j] = new JButton();
-                    puzzleBoard[i][j].setBackground(Color.BLACK);
-                    puzzleBoard[i][j].setPreferredSize(new Dimension(80, 80));
-                }
+                puzzleBoard[i][j] = new JButton();
+                puzzleBoard[i][j].addActionListener(this);
+                puzzleBoard[i][j].setPreferredSize(new Dimension(TOKEN_SIZE, TOKEN_SIZE));
             }
         }
+        tokenBackground = puzzleBoard[0][0].getBackground();
         renderPuzzleBoard();
     }
 
@@ -89,7 +120,7 @@ public class PuzzlePanel extends JPanel implements ActionListener {
      */
     private void renderPuzzleBoard() {
         removeAll();
-        setLayout(new GridLayout(puzzleModel.length, puzzleModel.length));
+        setLayout(new GridLayout(puzzleBoard.length, puzzleBoard.length));
         for (int i = 0; i < puzzleBoard.length; i++) {
             for (int j = 0; j < puzzleBoard[0].length; j++) {
                 JButton currentToken = puzzleBoard[i][j];
@@ -100,12 +131,14 @@ public class PuzzlePanel extends JPanel implements ActionListener {
     }
 
     /**
-     * Invoked when an action occurs.
+     * Invoked when an action occurs. The clicks on the blank token are ignored.
      * @param e - The object which contains all the information about the generated event.
      */
     @Override
     public void actionPerformed(ActionEvent e) {
         String actionCommand = e.getActionCommand();
-        context.doMove(Integer.parseInt(actionCommand));
+        if (!actionCommand.isEmpty()) {
+            context.doMove(Integer.parseInt(actionCommand));
+        }
     }
 }
@@ -0,0 +1,121 @@
+package view;
+
+import model.Puzzle;
+import model.solver.Solution;
+import model.solver.Solver;
+import model.solver.SolverMonitor;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Solves a snapshot of the board off the Event Dispatch Thread. Every finished iteration of the search is published
+ * as progress, and Swing hands the pending chunks to the Event Dispatch Thread in batches, so only the latest one is
+ * shown. The search can be cancelled at any time.
+ */
+public class SolveWorker extends SwingWorker<Solution, long[]> {
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Represents the main frame that receives the progress and the solution.
+     */
+    private final MainFrame context;
+
+    /**
+     * Represents the board to solve, copied when the worker was created.
+     */
+    private final int[][] board;
+
+    /**
+     * Represents the solver used in the background.
+     */
+    private final Solver solver;
+
+    /**
+     * Represents the monitor that reports the progress and cancels the search.
+     */
+    private final SolverMonitor monitor;
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Constructor
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a worker that solves a snapshot of the board.
+     * @param context - is the main frame that receives the progress and the solution.
+     * @param solver - is the solver to use in the background.
+     * @param board - is the board to solve. It must not be changed while the worker runs.
+     */
+    public SolveWorker(MainFrame context, Solver solver, int[][] board) {
+        this.context = context;
+        this.board = board;
+        this.solver = solver;
+        this.monitor = new SolverMonitor() {
+            @Override
+            public void iterationFinished(int bound, long nodesExpanded) {
+                publish(new long[] {bound, nodesExpanded});
+            }
+        };
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    // Services
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gets the board being solved.
+     * @return the snapshot of the board taken when the worker was created.
+     */
+    public int[][] getBoard() {
+        return board;
+    }
+
+    /**
+     * Stops the search as soon as possible.
+     */
+    public void cancelSolve() {
+        monitor.cancel();
+        cancel(false);
+    }
+
+    /**
+     * Solves the board in the background.
+     * @return the optimal solution of the board.
+     * @throws Exception - If the board can not be solved.
+     */
+    @Override
+    protected Solution doInBackground() throws Exception {
+        return solver.solve(new Puzzle(board), monitor);
+    }
+
+    /**
+     * Shows the latest progress of the search on the Event Dispatch Thread.
+     * @param chunks - are the progress reports published since the last call. Only the last one is shown.
+     */
+    @Override
+    protected void process(List<long[]> chunks) {
+        long[] latest = chunks.get(chunks.size() - 1);
+        context.solveProgress((int) latest[0], latest[1]);
+    }
+
+    /**
+     * Hands the solution, or the error, to the main frame on the Event Dispatch Thread.
+     */
+    @Override
+    protected void done() {
+        try {
+            context.solveFinished(this, get());
+        } catch (CancellationException e) {
+            context.solveFailed(this, "Search cancelled");
+        } catch (ExecutionException e) {
+            context.solveFailed(this, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}